@@ -0,0 +1,70 @@
+package benchmark;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.Persistence;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * 벤치마크용 영속성 유닛 부트스트랩
+ * - persistence.xml 의 유닛을 그대로 사용하되 URL만 인메모리 H2로 바꿔치기 한다.
+ *   -> H2 TCP 서버 없이 실행 가능
+ * - SQL 로그는 측정값을 왜곡하므로 모두 끈다.
+ * - 트라이얼마다 이름이 다른 DB를 사용해서 이전 측정의 데이터가 남지 않게 한다.
+ */
+public final class InMemoryPersistence {
+
+    private InMemoryPersistence() {
+    }
+
+    public static EntityManagerFactory create(String unitName) {
+        return create(unitName, new HashMap<>());
+    }
+
+    public static EntityManagerFactory create(String unitName, Map<String, Object> overrides) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("javax.persistence.jdbc.url",
+                "jdbc:h2:mem:" + unitName + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        properties.put("hibernate.show_sql", "false");
+        properties.put("hibernate.format_sql", "false");
+        properties.put("hibernate.use_sql_comments", "false");
+        properties.put("hibernate.hbm2ddl.auto", "create");
+        properties.putAll(overrides);
+        return Persistence.createEntityManagerFactory(unitName, properties);
+    }
+
+    /**
+     * 2차 캐시, 쿼리 캐시를 끈다.
+     * - use_second_level_cache=false 만으로는 리전 팩토리(jcache)가 남아서 컬렉션 캐시(@Cache 컬렉션)는 계속 사용된다.
+     *   -> 리전 팩토리도 캐시하지 않는 것으로 바꾼다.
+     */
+    public static void disableCaching(Map<String, Object> overrides) {
+        overrides.put("hibernate.cache.use_second_level_cache", "false");
+        overrides.put("hibernate.cache.use_query_cache", "false");
+        overrides.put("hibernate.cache.region.factory_class", "org.hibernate.cache.internal.NoCachingRegionFactory");
+    }
+
+    /**
+     * 트랜잭션 하나 안에서 작업을 실행한다. (데이터 적재용)
+     */
+    public static void inTransaction(EntityManagerFactory emf, Consumer<EntityManager> work) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            work.accept(em);
+            tx.commit();
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package hellojpa.benchmark;
+
+import hellojpa.id.BlockIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+
+/**
+ * 식별자 전략 비교용 : 블록 할당, increment by 1000 시퀀스에서 예약
+ */
+@Entity
+@GenericGenerator(name = "BLOCK_SEQUENCE_ID_GENERATOR", strategy = "hellojpa.id.BlockIdGenerator",
+        parameters = {
+                @Parameter(name = BlockIdGenerator.SEQUENCE_NAME, value = "BLOCK_ID_SEQ"),
+                @Parameter(name = BlockIdGenerator.BLOCK_SIZE, value = "1000")
+        })
+public class BlockSequenceIdEntity implements IdEntity {
+
+    @Id
+    @GeneratedValue(generator = "BLOCK_SEQUENCE_ID_GENERATOR")
+    private Long id;
+
+    private String name;
+
+    public BlockSequenceIdEntity() {
+    }
+
+    public BlockSequenceIdEntity(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
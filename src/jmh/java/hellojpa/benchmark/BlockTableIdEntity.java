@@ -0,0 +1,40 @@
+package hellojpa.benchmark;
+
+import hellojpa.id.BlockIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+
+/**
+ * 식별자 전략 비교용 : 블록 할당, 키 테이블에서 1000개씩 예약
+ */
+@Entity
+@GenericGenerator(name = "BLOCK_TABLE_ID_GENERATOR", strategy = "hellojpa.id.BlockIdGenerator",
+        parameters = @Parameter(name = BlockIdGenerator.BLOCK_SIZE, value = "1000"))
+public class BlockTableIdEntity implements IdEntity {
+
+    @Id
+    @GeneratedValue(generator = "BLOCK_TABLE_ID_GENERATOR")
+    private Long id;
+
+    private String name;
+
+    public BlockTableIdEntity() {
+    }
+
+    public BlockTableIdEntity(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,118 @@
+package hellojpa.benchmark;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 트랜잭션 하나에서 1,000건 저장 : IDENTITY vs SEQUENCE vs Snowflake
+ * - hellojpa 유닛의 hibernate.jdbc.batch_size = 100, 100건마다 flush/clear
+ * - IDENTITY : persist() 마다 INSERT 1번 (배치 불가)
+ * - SEQUENCE : 50건마다 시퀀스 조회 1번 + 배치 INSERT
+ * - SNOWFLAKE : DB 왕복 없이 식별자 생성 + 배치 INSERT
+ * - 결과는 저장한 행(ops) 기준 처리량
+ * - setUp 에서 PreparedStatement 수로 배치 여부를 확인하고, tearDown 에서 식별자가 유일한지 확인한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdBatchInsertBenchmark {
+
+    private static final int ROWS = 1_000;
+    private static final int BATCH_SIZE = 100;
+
+    public enum Strategy {
+        IDENTITY(IdentityIdEntity.class, IdentityIdEntity::new),
+        SEQUENCE(SequenceIdEntity.class, SequenceIdEntity::new),
+        SNOWFLAKE(SnowflakeIdEntity.class, SnowflakeIdEntity::new);
+
+        private final Class<? extends IdEntity> type;
+        private final Function<String, ? extends IdEntity> constructor;
+
+        Strategy(Class<? extends IdEntity> type, Function<String, ? extends IdEntity> constructor) {
+            this.type = type;
+            this.constructor = constructor;
+        }
+    }
+
+    @Param({"IDENTITY", "SEQUENCE", "SNOWFLAKE"})
+    private Strategy strategy;
+
+    private EntityManagerFactory emf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = IdEntityPersistence.createNode(IdEntityPersistence.newUrl(), true, 2);
+        verifyBatching();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long rows = IdEntityPersistence.verifyUnique(emf, strategy.type);
+        System.out.printf("%n%s : %d rows, ids unique%n", strategy, rows);
+        emf.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insert() {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            for (int i = 0; i < ROWS; i++) {
+                em.persist(strategy.constructor.apply("entity" + i));
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            tx.commit();
+        } finally {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * INSERT 1,000건에 PreparedStatement 가 몇 번 만들어지는지 센다. (배치면 flush 마다 1번)
+     */
+    private void verifyBatching() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        insert();
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        System.out.printf("%n%s : %d statements for %d inserts%n", strategy, statements, ROWS);
+        boolean batched = statements < ROWS / 2;
+        if (batched == (strategy == Strategy.IDENTITY)) {
+            throw new IllegalStateException(strategy + " 배치 여부가 예상과 다름 : statements=" + statements);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package hellojpa.benchmark;
+
+/**
+ * 식별자 전략 비교용 엔티티 공통 인터페이스
+ */
+public interface IdEntity {
+
+    Long getId();
+}
@@ -0,0 +1,83 @@
+package hellojpa.benchmark;
+
+import benchmark.InMemoryPersistence;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 식별자 전략 비교용 영속성 유닛
+ * - hellojpa 유닛에 비교용 엔티티(src/jmh)를 hibernate.ejb.loaded.classes 로 추가한다.
+ * - 같은 URL 로 여러 번 만들면 한 DB 를 공유하는 여러 애플리케이션 노드를 흉내낼 수 있다.
+ *   -> 스키마는 첫 노드만 만든다.
+ * - 스레드마다 커넥션을 하나씩 잡고, 식별자 예약용 별도 커넥션도 필요하므로 커넥션 풀을 넉넉하게 잡는다.
+ */
+final class IdEntityPersistence {
+
+    private IdEntityPersistence() {
+    }
+
+    static String newUrl() {
+        return "jdbc:h2:mem:ids-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    }
+
+    static EntityManagerFactory createNode(String url, boolean createSchema, int poolSize) {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("javax.persistence.jdbc.url", url);
+        overrides.put("hibernate.hbm2ddl.auto", createSchema ? "create" : "none");
+        overrides.put("hibernate.connection.pool_size", String.valueOf(poolSize));
+        overrides.put("hibernate.generate_statistics", "false");
+        overrides.put("hibernate.ejb.loaded.classes", Arrays.asList(
+                TableIdEntity.class, BlockTableIdEntity.class, BlockSequenceIdEntity.class, SequenceIdEntity.class,
+                IdentityIdEntity.class, SnowflakeIdEntity.class));
+        return InMemoryPersistence.create("hellojpa", overrides);
+    }
+
+    /**
+     * 엔티티 하나를 자기 트랜잭션에서 저장한다. (INSERT 1건 = 트랜잭션 1개)
+     */
+    static Long persist(EntityManagerFactory emf, Supplier<? extends IdEntity> factory) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            IdEntity entity = factory.get();
+            em.persist(entity);
+            tx.commit();
+            return entity.getId();
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * 저장된 행 수와 서로 다른 식별자 수가 같은지 확인한다.
+     */
+    static long verifyUnique(EntityManagerFactory emf, Class<? extends IdEntity> type) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            String entityName = em.getMetamodel().entity(type).getName();
+            Object[] counts = (Object[]) em.createQuery(
+                    "select count(e), count(distinct e.id) from " + entityName + " e").getSingleResult();
+            long rows = (Long) counts[0];
+            long distinctIds = (Long) counts[1];
+            if (rows != distinctIds) {
+                throw new IllegalStateException(entityName + " 식별자 중복 : rows=" + rows + ", distinct=" + distinctIds);
+            }
+            return rows;
+        } finally {
+            em.close();
+        }
+    }
+}
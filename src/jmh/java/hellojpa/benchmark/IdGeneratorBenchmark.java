@@ -0,0 +1,131 @@
+package hellojpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 32 스레드 동시 INSERT 처리량 : 식별자 전략별 비교
+ * - TABLE : @TableGenerator(allocationSize = 1), INSERT 마다 키 테이블 행 락
+ * - BLOCK_TABLE, BLOCK_SEQUENCE : BlockIdGenerator, 1000개 블록을 예약하고 JVM 안에서 AtomicLong 으로 할당
+ * - SEQUENCE : 시퀀스 전략 allocationSize = 50 (pooled-lo)
+ * - INSERT 1건 = 트랜잭션 1개
+ * - setUp 에서 한 DB 를 공유하는 노드 2개가 동시에 저장해도 식별자가 겹치지 않는지 확인하고,
+ *   tearDown 에서 측정 중 저장된 행의 식별자가 유일한지 확인한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(IdGeneratorBenchmark.THREADS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+    static final int THREADS = 32;
+
+    private static final int NODES = 2;
+    private static final int VERIFY_THREADS_PER_NODE = 4;
+    private static final int VERIFY_INSERTS_PER_THREAD = 1_500;
+
+    public enum Strategy {
+        TABLE(TableIdEntity.class, TableIdEntity::new),
+        BLOCK_TABLE(BlockTableIdEntity.class, BlockTableIdEntity::new),
+        BLOCK_SEQUENCE(BlockSequenceIdEntity.class, BlockSequenceIdEntity::new),
+        SEQUENCE(SequenceIdEntity.class, SequenceIdEntity::new);
+
+        private final Class<? extends IdEntity> type;
+        private final Function<String, ? extends IdEntity> constructor;
+
+        Strategy(Class<? extends IdEntity> type, Function<String, ? extends IdEntity> constructor) {
+            this.type = type;
+            this.constructor = constructor;
+        }
+    }
+
+    @Param({"TABLE", "BLOCK_TABLE", "BLOCK_SEQUENCE", "SEQUENCE"})
+    private Strategy strategy;
+
+    private EntityManagerFactory emf;
+    private Supplier<IdEntity> factory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        factory = () -> strategy.constructor.apply("entity");
+        String url = IdEntityPersistence.newUrl();
+        emf = IdEntityPersistence.createNode(url, true, THREADS * 2 + 1);
+        verifyAcrossNodes(url);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long rows = IdEntityPersistence.verifyUnique(emf, strategy.type);
+        System.out.printf("%n%s : %d rows, ids unique%n", strategy, rows);
+        emf.close();
+    }
+
+    @Benchmark
+    public Long insert() {
+        return IdEntityPersistence.persist(emf, factory);
+    }
+
+    /**
+     * 첫 노드(emf)와 같은 DB 를 쓰는 노드를 하나 더 띄워서 동시에 저장한다.
+     */
+    private void verifyAcrossNodes(String url) throws Exception {
+        List<EntityManagerFactory> nodes = new ArrayList<>();
+        nodes.add(emf);
+        for (int i = 1; i < NODES; i++) {
+            nodes.add(IdEntityPersistence.createNode(url, false, VERIFY_THREADS_PER_NODE * 2 + 1));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(NODES * VERIFY_THREADS_PER_NODE);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (EntityManagerFactory node : nodes) {
+                for (int i = 0; i < VERIFY_THREADS_PER_NODE; i++) {
+                    futures.add(executor.submit(() -> {
+                        for (int j = 0; j < VERIFY_INSERTS_PER_THREAD; j++) {
+                            IdEntityPersistence.persist(node, factory);
+                        }
+                    }));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            for (EntityManagerFactory node : nodes.subList(1, nodes.size())) {
+                node.close();
+            }
+        }
+
+        long expected = (long) NODES * VERIFY_THREADS_PER_NODE * VERIFY_INSERTS_PER_THREAD;
+        long rows = IdEntityPersistence.verifyUnique(emf, strategy.type);
+        if (rows != expected) {
+            throw new IllegalStateException("저장된 행 수 불일치 : " + rows + " != " + expected);
+        }
+    }
+}
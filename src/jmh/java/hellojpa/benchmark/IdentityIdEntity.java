@@ -0,0 +1,35 @@
+package hellojpa.benchmark;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+
+/**
+ * 식별자 전략 비교용 : IDENTITY 전략 (persist() 시점에 바로 INSERT)
+ */
+@Entity
+public class IdentityIdEntity implements IdEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String name;
+
+    public IdentityIdEntity() {
+    }
+
+    public IdentityIdEntity(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
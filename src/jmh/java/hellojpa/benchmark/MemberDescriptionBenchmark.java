@@ -0,0 +1,174 @@
+package hellojpa.benchmark;
+
+import benchmark.InMemoryPersistence;
+import hellojpa.Member;
+import hellojpa.MemberDescriptions;
+import org.hibernate.Hibernate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 설명(@Lob) 지연 로딩, 스트리밍 읽기
+ * - list* : 설명이 64KB 인 회원 1,000명 목록 조회
+ *   -> listLazy : select m from Member m (설명 컬럼 조회 안 함)
+ *   -> listAllProperties : fetch all properties 로 지연 속성까지 조회 (지연 로딩 적용 전과 같은 SQL)
+ * - read* : 8MB 설명 하나 읽기
+ *   -> readString : getDescription() 으로 String 생성
+ *   -> readStreamed : MemberDescriptions.copyDescription (8KB 버퍼)
+ * - 할당량은 -prof gc 의 gc.alloc.rate.norm 으로 비교한다.
+ * - setUp 에서 목록 조회 시 설명이 초기화되지 않는지, 두 읽기 방식의 길이가 같은지 확인한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class MemberDescriptionBenchmark {
+
+    private static final int MEMBER_COUNT = 1_000;
+    private static final int DESCRIPTION_LENGTH = 64 * 1024;
+    private static final int LARGE_DESCRIPTION_LENGTH = 8 * 1024 * 1024;
+
+    private EntityManagerFactory emf;
+    private Long largeMemberId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = InMemoryPersistence.create("hellojpa");
+        String description = repeat('a', DESCRIPTION_LENGTH);
+        InMemoryPersistence.inTransaction(emf, em -> {
+            for (int i = 0; i < MEMBER_COUNT; i++) {
+                Member member = new Member();
+                member.setUsername("member" + i);
+                member.setAge(i % 100);
+                member.setDescription(description);
+                em.persist(member);
+                if ((i + 1) % 100 == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+        InMemoryPersistence.inTransaction(emf, em -> {
+            Member member = new Member();
+            member.setUsername("large");
+            em.persist(member);
+            em.flush();
+            largeMemberId = member.getId();
+            new MemberDescriptions(em).writeDescription(largeMemberId,
+                    new StringReader(repeat('b', LARGE_DESCRIPTION_LENGTH)));
+        });
+        verify();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Member> listLazy() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("select m from Member m", Member.class).getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<Member> listAllProperties() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("select m from Member m fetch all properties", Member.class).getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public int readString() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(Member.class, largeMemberId).getDescription().length();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public long readStreamed(Blackhole bh) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        try {
+            return new MemberDescriptions(em).copyDescription(largeMemberId, new BlackholeWriter(bh));
+        } finally {
+            em.getTransaction().commit();
+            em.close();
+        }
+    }
+
+    private void verify() {
+        for (Member member : listLazy()) {
+            if (member.getId().equals(largeMemberId)) {
+                continue;
+            }
+            if (Hibernate.isPropertyInitialized(member, "description")) {
+                throw new IllegalStateException("목록 조회에서 설명이 로딩됨 (바이트코드 향상 확인)");
+            }
+        }
+        if (readString() != LARGE_DESCRIPTION_LENGTH || readStreamed(null) != LARGE_DESCRIPTION_LENGTH) {
+            throw new IllegalStateException("설명 길이 불일치");
+        }
+    }
+
+    private static String repeat(char c, int length) {
+        char[] chars = new char[length];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static class BlackholeWriter extends Writer {
+
+        private final Blackhole bh;
+
+        BlackholeWriter(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            if (bh != null) {
+                bh.consume(buffer);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
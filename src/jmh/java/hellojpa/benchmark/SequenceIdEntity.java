@@ -0,0 +1,37 @@
+package hellojpa.benchmark;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+
+/**
+ * 식별자 전략 비교용 : 시퀀스 전략, allocationSize = 50 (hellojpa.Member 와 같은 설정)
+ */
+@Entity
+@SequenceGenerator(name = "SEQUENCE_ID_GENERATOR", sequenceName = "SEQUENCE_ID_SEQ", allocationSize = 50)
+public class SequenceIdEntity implements IdEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "SEQUENCE_ID_GENERATOR")
+    private Long id;
+
+    private String name;
+
+    public SequenceIdEntity() {
+    }
+
+    public SequenceIdEntity(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,99 @@
+package hellojpa.benchmark;
+
+import hellojpa.id.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SnowflakeIdGenerator 32 스레드 동시 생성
+ * - setUp : 노드 2개(node_id 1, 2) x 16 스레드가 동시에 만든 식별자가 모두 다른지 확인한다.
+ * - 측정 중에는 스레드마다 식별자가 계속 증가하는지 확인하고, tearDown 에서 위반 건수를 검사한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(SnowflakeIdBenchmark.THREADS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnowflakeIdBenchmark {
+
+    static final int THREADS = 32;
+
+    private static final int STRESS_IDS_PER_THREAD = 50_000;
+
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+
+    private final LongAdder violations = new LongAdder();
+
+    @State(Scope.Thread)
+    public static class LastId {
+        long value;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SnowflakeIdGenerator[] nodes = {new SnowflakeIdGenerator(1), new SnowflakeIdGenerator(2)};
+        Set<Long> ids = ConcurrentHashMap.newKeySet(THREADS * STRESS_IDS_PER_THREAD);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                SnowflakeIdGenerator node = nodes[i % nodes.length];
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < STRESS_IDS_PER_THREAD; j++) {
+                        ids.add(node.nextId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        if (ids.size() != THREADS * STRESS_IDS_PER_THREAD) {
+            throw new IllegalStateException("식별자 중복 : " + (THREADS * STRESS_IDS_PER_THREAD - ids.size()) + "건");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (violations.sum() != 0) {
+            throw new IllegalStateException("증가하지 않은 식별자 : " + violations.sum() + "건");
+        }
+    }
+
+    @Benchmark
+    public long nextId(LastId last) {
+        long id = generator.nextId();
+        if (id <= last.value) {
+            violations.increment();
+        }
+        last.value = id;
+        return id;
+    }
+}
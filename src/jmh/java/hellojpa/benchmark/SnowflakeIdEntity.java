@@ -0,0 +1,37 @@
+package hellojpa.benchmark;
+
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+
+/**
+ * 식별자 전략 비교용 : Snowflake 방식, 애플리케이션에서 식별자 생성 (DB 왕복 없음)
+ */
+@Entity
+@GenericGenerator(name = "SNOWFLAKE_ID_GENERATOR", strategy = "hellojpa.id.SnowflakeIdGenerator")
+public class SnowflakeIdEntity implements IdEntity {
+
+    @Id
+    @GeneratedValue(generator = "SNOWFLAKE_ID_GENERATOR")
+    private Long id;
+
+    private String name;
+
+    public SnowflakeIdEntity() {
+    }
+
+    public SnowflakeIdEntity(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
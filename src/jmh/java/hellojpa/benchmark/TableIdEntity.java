@@ -0,0 +1,38 @@
+package hellojpa.benchmark;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.TableGenerator;
+
+/**
+ * 식별자 전략 비교용 : 테이블 전략, allocationSize = 1 (INSERT 마다 키 테이블 UPDATE)
+ */
+@Entity
+@TableGenerator(name = "TABLE_ID_GENERATOR", table = "MY_SEQUENCES",
+        pkColumnValue = "TABLE_ID_SEQ", allocationSize = 1)
+public class TableIdEntity implements IdEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "TABLE_ID_GENERATOR")
+    private Long id;
+
+    private String name;
+
+    public TableIdEntity() {
+    }
+
+    public TableIdEntity(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,52 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Item;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.JoinTable;
+import javax.persistence.ManyToMany;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 연결 엔티티 비교용 : 이전 Category.items 와 같은 @ManyToMany List 매핑 (BAG_CATEGORY_ITEM)
+ * - 순서 컬럼이 없는 List 는 bag 이라 행을 식별할 수 없어서, 하나만 바뀌어도 연결 행을 모두 지우고 다시 넣는다.
+ */
+@Entity
+public class BagCategory {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String name;
+
+    @ManyToMany
+    @JoinTable(name = "BAG_CATEGORY_ITEM",
+            joinColumns = @JoinColumn(name = "CATEGORY_ID"),
+            inverseJoinColumns = @JoinColumn(name = "ITEM_ID")
+    )
+    private List<Item> items = new ArrayList<>();
+
+    public BagCategory() {
+    }
+
+    public BagCategory(String name) {
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+}
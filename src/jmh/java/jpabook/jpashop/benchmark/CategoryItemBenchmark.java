@@ -0,0 +1,237 @@
+package jpabook.jpashop.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpabook.jpashop.domain.CategoryItem;
+import jpabook.jpashop.domain.Item;
+import jpabook.jpashop.service.CategoryItems;
+import jpabook.jpashop.service.CategoryTree;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 카테고리-상품 연결 변경 비용 : @ManyToMany bag (BagCategory) vs 연결 엔티티 (CategoryItem + CategoryItems)
+ * - 카테고리 A, B 에 상품을 linkCount 개씩 연결해두고 시작한다.
+ * - *ToggleOne : A 에 상품 하나를 연결하고, 다음 호출에서 다시 끊는다.
+ * - *Move : 상품 100개를 A -> B, 다음 호출에서 B -> A 로 옮긴다. (일괄 재분류)
+ * - 호출마다 새 영속성 컨텍스트, 트랜잭션 하나
+ * - setUp
+ *   -> 연결 엔티티 : 상품 하나 연결 = SQL 1번(INSERT), 끊기 = SQL 1번(DELETE) 인지 확인한다.
+ *   -> bag : 상품 하나 연결 후 연결 수를 확인한다. (컬렉션 재생성도 통계에는 컬렉션 update 1번으로 잡혀서 행 수는 시간으로 비교)
+ *   -> 두 방식 모두 이동 후 연결 수, linkAll 의 중복 제외를 확인한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CategoryItemBenchmark {
+
+    private static final int MOVE_COUNT = 100;
+
+    @Param({"1000", "10000"})
+    private int linkCount;
+
+    private EntityManagerFactory emf;
+    private Statistics statistics;
+
+    private Long linkA;
+    private Long linkB;
+    private Long bagA;
+    private Long bagB;
+    private Long extraItemId;
+    private List<Long> moveItemIds;
+
+    private boolean extraLinked;
+    private boolean moved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("hibernate.ejb.loaded.classes", Arrays.asList(BagCategory.class));
+        emf = InMemoryPersistence.create("jpashop", overrides);
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        List<Long> itemIds = JpashopFixtures.seedItems(emf, linkCount * 2 + 1);
+        List<Long> aItemIds = itemIds.subList(0, linkCount);
+        List<Long> bItemIds = itemIds.subList(linkCount, linkCount * 2);
+        extraItemId = itemIds.get(linkCount * 2);
+        moveItemIds = new ArrayList<>(aItemIds.subList(0, MOVE_COUNT));
+
+        linkA = seedLinks("A", aItemIds);
+        linkB = seedLinks("B", bItemIds);
+        bagA = seedBag("A", aItemIds);
+        bagB = seedBag("B", bItemIds);
+
+        verifyLink();
+        verifyBag();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public void linkToggleOne() {
+        InMemoryPersistence.inTransaction(emf, em -> {
+            CategoryItems categoryItems = new CategoryItems(em);
+            if (extraLinked) {
+                categoryItems.unlink(linkA, extraItemId);
+            } else {
+                categoryItems.link(linkA, extraItemId);
+            }
+        });
+        extraLinked = !extraLinked;
+    }
+
+    @Benchmark
+    public void bagToggleOne() {
+        InMemoryPersistence.inTransaction(emf, em -> toggleBag(em, bagA, extraItemId, !extraLinked));
+        extraLinked = !extraLinked;
+    }
+
+    @Benchmark
+    public int linkMove() {
+        int[] linked = new int[1];
+        InMemoryPersistence.inTransaction(emf, em -> linked[0] = moved
+                ? new CategoryItems(em).move(moveItemIds, linkB, linkA)
+                : new CategoryItems(em).move(moveItemIds, linkA, linkB));
+        moved = !moved;
+        return linked[0];
+    }
+
+    @Benchmark
+    public void bagMove() {
+        InMemoryPersistence.inTransaction(emf, em -> {
+            if (moved) {
+                moveBag(em, bagB, bagA, moveItemIds);
+            } else {
+                moveBag(em, bagA, bagB, moveItemIds);
+            }
+        });
+        moved = !moved;
+    }
+
+    private static void toggleBag(EntityManager em, Long categoryId, Long itemId, boolean link) {
+        List<Item> items = em.find(BagCategory.class, categoryId).getItems();
+        if (link) {
+            items.add(em.getReference(Item.class, itemId));
+        } else {
+            items.removeIf(item -> item.getId().equals(itemId));
+        }
+    }
+
+    private static void moveBag(EntityManager em, Long fromId, Long toId, List<Long> itemIds) {
+        HashSet<Long> ids = new HashSet<>(itemIds);
+        em.find(BagCategory.class, fromId).getItems().removeIf(item -> ids.contains(item.getId()));
+        List<Item> to = em.find(BagCategory.class, toId).getItems();
+        for (Long itemId : itemIds) {
+            to.add(em.getReference(Item.class, itemId));
+        }
+    }
+
+    private Long seedLinks(String name, List<Long> itemIds) {
+        Long[] id = new Long[1];
+        InMemoryPersistence.inTransaction(emf, em -> {
+            id[0] = new CategoryTree(em).create(name, null).getId();
+            new CategoryItems(em).linkAll(id[0], itemIds);
+        });
+        return id[0];
+    }
+
+    private Long seedBag(String name, List<Long> itemIds) {
+        Long[] id = new Long[1];
+        InMemoryPersistence.inTransaction(emf, em -> {
+            BagCategory category = new BagCategory(name);
+            for (Long itemId : itemIds) {
+                category.getItems().add(em.getReference(Item.class, itemId));
+            }
+            em.persist(category);
+            id[0] = category.getId();
+        });
+        return id[0];
+    }
+
+    private void verifyLink() {
+        statistics.clear();
+        InMemoryPersistence.inTransaction(emf, em -> new CategoryItems(em).link(linkA, extraItemId));
+        check("link 1개", statistics.getPrepareStatementCount() == 1 && statistics.getEntityInsertCount() == 1
+                && statistics.getCollectionRecreateCount() == 0);
+
+        statistics.clear();
+        InMemoryPersistence.inTransaction(emf, em -> new CategoryItems(em).unlink(linkA, extraItemId));
+        check("unlink 1개", statistics.getPrepareStatementCount() == 1);
+
+        linkMove();
+        check("link 이동", links(linkA) == linkCount - MOVE_COUNT && links(linkB) == linkCount + MOVE_COUNT);
+        linkMove();
+        check("link 되돌리기", links(linkA) == linkCount && links(linkB) == linkCount);
+
+        List<Long> partlyLinked = new ArrayList<>(moveItemIds.subList(0, 10));
+        partlyLinked.add(extraItemId);
+        int[] linked = new int[1];
+        InMemoryPersistence.inTransaction(emf, em -> linked[0] = new CategoryItems(em).linkAll(linkA, partlyLinked));
+        InMemoryPersistence.inTransaction(emf, em -> new CategoryItems(em).unlink(linkA, extraItemId));
+        check("linkAll 중복 제외", linked[0] == 1 && links(linkA) == linkCount);
+    }
+
+    private void verifyBag() {
+        statistics.clear();
+        InMemoryPersistence.inTransaction(emf, em -> toggleBag(em, bagA, extraItemId, true));
+        check("bag 1개 추가", statistics.getCollectionUpdateCount() == 1 && bagLinks(bagA) == linkCount + 1);
+        InMemoryPersistence.inTransaction(emf, em -> toggleBag(em, bagA, extraItemId, false));
+        check("bag 1개 삭제", bagLinks(bagA) == linkCount);
+
+        bagMove();
+        check("bag 이동", bagLinks(bagA) == linkCount - MOVE_COUNT && bagLinks(bagB) == linkCount + MOVE_COUNT);
+        bagMove();
+        check("bag 되돌리기", bagLinks(bagA) == linkCount && bagLinks(bagB) == linkCount);
+    }
+
+    private long links(Long categoryId) {
+        return count("select count(*) from CATEGORY_ITEM where CATEGORY_ID = :id", categoryId);
+    }
+
+    private long bagLinks(Long categoryId) {
+        return count("select count(*) from BAG_CATEGORY_ITEM where CATEGORY_ID = :id", categoryId);
+    }
+
+    private long count(String sql, Long categoryId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return ((Number) em.createNativeQuery(sql).setParameter("id", categoryId).getSingleResult()).longValue();
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void check(String name, boolean ok) {
+        if (!ok) {
+            throw new IllegalStateException("검증 실패 : " + name);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package jpabook.jpashop.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.CategoryItem;
+import jpabook.jpashop.domain.Item;
+import jpabook.jpashop.service.CategoryNode;
+import jpabook.jpashop.service.CategoryTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 카테고리 10만 개, 깊이 10 트리의 하위 트리 조회 : 인접 목록 vs 클로저 테이블
+ * - 트리 : 너비 우선으로 자식 4개씩 (0 ~ 8 단계는 모두 채우고 9 단계는 일부), 가장 깊은 단계 카테고리마다 상품 1개
+ * - rootDepth : 조회할 하위 트리 루트의 단계, 그 단계의 첫 카테고리를 루트로 쓴다.
+ *   -> 0 = 10만 개, 2 = 18,080 개, 5 = 341 개 (9 단계 노드가 앞쪽 부모에 몰려 있음)
+ * - adjacency* : Category.child 를 재귀로 따라간다. (jpashop 유닛 default_batch_fetch_size = 100)
+ * - closure* : CategoryTree 의 쿼리 1번
+ * - setUp
+ *   -> create/move 로 유지한 클로저 테이블이 인접 목록에서 rebuild 한 결과와 같은지 확인한다.
+ *   -> 하위 트리의 노드 수, 상품 수가 두 방식에서 같은지 확인한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CategoryTreeBenchmark {
+
+    private static final int NODE_COUNT = 100_000;
+    private static final int FANOUT = 4;
+    private static final int MAX_DEPTH = 9;
+    private static final int ITEM_COUNT = 1_000;
+    private static final int FLUSH_SIZE = 1_000;
+
+    @Param({"0", "2", "5"})
+    private int rootDepth;
+
+    private EntityManagerFactory emf;
+    private Long rootId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = InMemoryPersistence.create("jpashop");
+        verifyIncrementalSync();
+        rootId = seedTree();
+        verifySubtree();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public int adjacencySubtree() {
+        return read(em -> countDescendants(em.find(Category.class, rootId)));
+    }
+
+    @Benchmark
+    public int closureSubtree() {
+        return read(em -> new CategoryTree(em).findSubtree(rootId).size());
+    }
+
+    @Benchmark
+    public int closureTree() {
+        return read(em -> new CategoryTree(em).loadTree(rootId).size());
+    }
+
+    @Benchmark
+    public int adjacencyItems() {
+        return read(em -> {
+            Set<Item> items = new HashSet<>();
+            collectItems(em.find(Category.class, rootId), items);
+            return items.size();
+        });
+    }
+
+    @Benchmark
+    public int closureItems() {
+        return read(em -> new CategoryTree(em).findItems(rootId).size());
+    }
+
+    private static int countDescendants(Category category) {
+        int count = 1;
+        for (Category child : category.getChild()) {
+            count += countDescendants(child);
+        }
+        return count;
+    }
+
+    private static void collectItems(Category category, Set<Item> items) {
+        for (CategoryItem categoryItem : category.getCategoryItems()) {
+            items.add(categoryItem.getItem());
+        }
+        for (Category child : category.getChild()) {
+            collectItems(child, items);
+        }
+    }
+
+    private <T> T read(Function<EntityManager, T> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return work.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * 10만 개를 create() 로 하나씩 넣으면 오래 걸리므로 인접 목록만 저장하고 rebuild 한다.
+     *
+     * @return rootDepth 단계의 첫 카테고리 식별자
+     */
+    private Long seedTree() {
+        List<Long> itemIds = JpashopFixtures.seedItems(emf, ITEM_COUNT);
+        List<Long> ids = new ArrayList<>(NODE_COUNT);
+        int[] depths = new int[NODE_COUNT];
+
+        InMemoryPersistence.inTransaction(emf, em -> {
+            for (int i = 0; i < NODE_COUNT; i++) {
+                Category category = new Category();
+                category.setName("category" + i);
+                if (i > 0) {
+                    int parentIndex = (i - 1) / FANOUT;
+                    category.setParent(em.getReference(Category.class, ids.get(parentIndex)));
+                    depths[i] = depths[parentIndex] + 1;
+                }
+                em.persist(category);
+                if (depths[i] == MAX_DEPTH) {
+                    em.persist(new CategoryItem(category, em.getReference(Item.class, itemIds.get(i % ITEM_COUNT))));
+                }
+                ids.add(category.getId());
+                if ((i + 1) % FLUSH_SIZE == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+        InMemoryPersistence.inTransaction(emf, em -> new CategoryTree(em).rebuild());
+
+        for (int i = 0; i < NODE_COUNT; i++) {
+            if (depths[i] == rootDepth) {
+                return ids.get(i);
+            }
+        }
+        throw new IllegalStateException("rootDepth 단계가 없음 : " + rootDepth);
+    }
+
+    private void verifySubtree() {
+        int adjacency = adjacencySubtree();
+        int closure = closureSubtree();
+        int tree = closureTree();
+        int adjacencyItems = adjacencyItems();
+        int closureItems = closureItems();
+        System.out.printf("%nrootDepth=%d : %d categories, %d items%n", rootDepth, closure, closureItems);
+        if (adjacency != closure || adjacency != tree || adjacencyItems != closureItems || closureItems == 0) {
+            throw new IllegalStateException("하위 트리 불일치 : adjacency=" + adjacency + ", closure=" + closure
+                    + ", tree=" + tree + ", items=" + adjacencyItems + "/" + closureItems);
+        }
+    }
+
+    /**
+     * 작은 트리를 create/move 로 만들고 클로저 테이블을 rebuild 결과와 비교한 뒤 지운다.
+     */
+    private void verifyIncrementalSync() {
+        InMemoryPersistence.inTransaction(emf, em -> {
+            CategoryTree tree = new CategoryTree(em);
+            Category root = tree.create("root", null);
+            List<Category> nodes = new ArrayList<>();
+            nodes.add(root);
+            for (int i = 1; i < 40; i++) {
+                nodes.add(tree.create("node" + i, nodes.get((i - 1) / 3)));
+            }
+            tree.move(nodes.get(4), nodes.get(30));
+            tree.move(nodes.get(2), null);
+            tree.move(nodes.get(2), nodes.get(39));
+            try {
+                tree.move(nodes.get(1), nodes.get(5));
+                throw new IllegalStateException("자기 하위 트리 아래로 옮겨짐");
+            } catch (IllegalArgumentException expected) {
+                // 5 는 1 의 자식
+            }
+
+            Map<List<Long>, Integer> maintained = closureRows(em);
+            tree.rebuild();
+            Map<List<Long>, Integer> rebuilt = closureRows(em);
+            if (!maintained.equals(rebuilt)) {
+                throw new IllegalStateException("클로저 테이블 불일치 : " + maintained.size() + " rows != " + rebuilt.size());
+            }
+
+            em.createNativeQuery("delete from CATEGORY_CLOSURE").executeUpdate();
+            em.createNativeQuery("update Category set PARENT_ID = null").executeUpdate();
+            em.createNativeQuery("delete from Category").executeUpdate();
+        });
+    }
+
+    private static Map<List<Long>, Integer> closureRows(EntityManager em) {
+        Map<List<Long>, Integer> rows = new HashMap<>();
+        for (Object[] row : em.createQuery(
+                "select cc.ancestor.id, cc.descendant.id, cc.depth from CategoryClosure cc", Object[].class)
+                .getResultList()) {
+            List<Long> key = new ArrayList<>(2);
+            key.add((Long) row[0]);
+            key.add((Long) row[1]);
+            rows.put(key, (Integer) row[2]);
+        }
+        return rows;
+    }
+}
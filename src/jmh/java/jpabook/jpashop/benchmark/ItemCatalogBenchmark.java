@@ -0,0 +1,229 @@
+package jpabook.jpashop.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpabook.jpashop.domain.Album;
+import jpabook.jpashop.domain.Book;
+import jpabook.jpashop.domain.Item;
+import jpabook.jpashop.domain.Movie;
+import jpabook.jpashop.service.ItemCatalog;
+import jpabook.jpashop.service.ItemSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 단일 테이블 ITEM 카탈로그 조회 : Item 다형성 쿼리(엔티티) vs ItemCatalog (하위 타입 조회 + DTO 프로젝션)
+ * - 상품 ITEM_COUNT 개 : 도서 40%, 앨범 30%, 영화 30%, 가격 0 ~ 99,999 고르게 분포, 저자/아티스트/감독 1,000 명
+ *   -> H2 메모리 DB 라 500만 개는 힙에 들어가지 않아서 200만 개로 줄였다.
+ * - indexes : 시드 전에 인덱스를 지우거나 만든다. 시드(INSERT) 시간을 출력한다. (쓰기 비용)
+ *   -> NONE : IDX_ITEM_PRICE_DTYPE 을 지운다. (인덱스 추가 전)
+ *   -> PRICE : Item 의 매핑 그대로 (IDX_ITEM_PRICE_DTYPE)
+ *   -> ALL : 가격 인덱스 + 저자/아티스트/감독 인덱스를 만든다. (매핑에서 뺀 인덱스의 조회 이득과 쓰기 비용 비교용, Item 참고)
+ * - item* : select i from Item i where treat(i as Book).author = ? / type(i) in (Book, Movie) ...
+ * - catalog* : ItemCatalog
+ * - 호출마다 저자, 가격 범위(1,000 원 폭, 범위 안 도서+영화 약 14,000 개)를 바꾼다.
+ *   -> H2 는 같은 파라미터로 다시 실행한 결정적 쿼리의 이전 결과를 재사용해서, 같은 값을 반복하면 쿼리 실행 시간이 아니게 된다.
+ * - setUp
+ *   -> 시드 데이터의 타입별 개수를 countByType 으로 확인한다.
+ *   -> 두 방식의 조회 결과(식별자, 순서)가 같은지 확인한다.
+ *   -> 조회 SQL 이 인덱스를 타는지 H2 실행 계획으로 확인한다. (NONE 제외)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class ItemCatalogBenchmark {
+
+    private static final int ITEM_COUNT = 2_000_000;
+    private static final int PEOPLE = 1_000;
+    private static final int LIMIT = 100;
+    private static final int PRICE_RANGE = 1_000;
+
+    private static final List<Class<? extends Item>> PRICE_RANGE_TYPES = Arrays.asList(Book.class, Movie.class);
+
+    private static final String PRICE_INDEX = "IDX_ITEM_PRICE_DTYPE";
+    private static final List<String> PEOPLE_INDEXES = Arrays.asList(
+            "create index IDX_ITEM_AUTHOR on Item (author)",
+            "create index IDX_ITEM_ARTIST on Item (artist)",
+            "create index IDX_ITEM_DIRECTOR on Item (director)");
+
+    public enum Indexes {
+        NONE, PRICE, ALL
+    }
+
+    /**
+     * x % 10 : 0 ~ 3 도서, 4 ~ 6 앨범, 7 ~ 9 영화
+     */
+    private static final String SEED =
+            "insert into Item (DTYPE, ITEM_ID, name, price, stockQuantity, version, author, isbn, artist, etc, director, actor)"
+                    + " select case when mod(x, 10) < 4 then 'Book' when mod(x, 10) < 7 then 'Album' else 'Movie' end,"
+                    + " x, 'item' || x, mod(x * 7919, 100000), 100, 0,"
+                    + " case when mod(x, 10) < 4 then 'author' || mod(x, " + PEOPLE + ") end,"
+                    + " case when mod(x, 10) < 4 then 'isbn-' || x end,"
+                    + " case when mod(x, 10) between 4 and 6 then 'artist' || mod(x, " + PEOPLE + ") end,"
+                    + " case when mod(x, 10) between 4 and 6 then 'etc' || x end,"
+                    + " case when mod(x, 10) >= 7 then 'director' || mod(x, " + PEOPLE + ") end,"
+                    + " case when mod(x, 10) >= 7 then 'actor' || x end"
+                    + " from system_range(1, " + ITEM_COUNT + ")";
+
+    @Param({"NONE", "PRICE", "ALL"})
+    private Indexes indexes;
+
+    private EntityManagerFactory emf;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("hibernate.generate_statistics", "false");
+        emf = InMemoryPersistence.create("jpashop", overrides);
+        List<String> ddl = new ArrayList<>();
+        if (indexes == Indexes.NONE) {
+            ddl.add("drop index " + PRICE_INDEX);
+        }
+        if (indexes == Indexes.ALL) {
+            ddl.addAll(PEOPLE_INDEXES);
+        }
+        InMemoryPersistence.inTransaction(emf, em -> {
+            for (String sql : ddl) {
+                em.createNativeQuery(sql).executeUpdate();
+            }
+        });
+        long start = System.nanoTime();
+        InMemoryPersistence.inTransaction(emf, em -> em.createNativeQuery(SEED).executeUpdate());
+        System.out.printf("%nseed %d items (indexes=%s) : %d ms%n",
+                ITEM_COUNT, indexes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        verify();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Item> itemBooksByAuthor() {
+        String author = "author" + nextPerson();
+        return read(em -> em.createQuery("select i from Item i where treat(i as Book).author = :author order by i.id",
+                        Item.class)
+                .setParameter("author", author)
+                .setMaxResults(LIMIT)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<? extends ItemSummary> catalogBooksByAuthor() {
+        String author = "author" + nextPerson();
+        return read(em -> new ItemCatalog(em).findBooksByAuthor(author, LIMIT));
+    }
+
+    @Benchmark
+    public List<Item> itemPriceRange() {
+        int minPrice = nextMinPrice();
+        return read(em -> em.createQuery("select i from Item i where type(i) in (Book, Movie)"
+                        + " and i.price between :minPrice and :maxPrice order by i.price, i.id", Item.class)
+                .setParameter("minPrice", minPrice)
+                .setParameter("maxPrice", minPrice + PRICE_RANGE - 1)
+                .setMaxResults(LIMIT)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<ItemSummary> catalogPriceRange() {
+        int minPrice = nextMinPrice();
+        return read(em -> new ItemCatalog(em).findByPriceRange(PRICE_RANGE_TYPES, minPrice, minPrice + PRICE_RANGE - 1, LIMIT));
+    }
+
+    private int nextPerson() {
+        return invocation++ % PEOPLE;
+    }
+
+    private int nextMinPrice() {
+        return invocation++ % 100 * PRICE_RANGE;
+    }
+
+    private <T> T read(Function<EntityManager, T> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return work.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    private void verify() {
+        Map<Class<? extends Item>, Long> counts = read(em -> new ItemCatalog(em).countByType());
+        Map<Class<? extends Item>, Long> expected = new HashMap<>();
+        expected.put(Book.class, ITEM_COUNT * 4L / 10);
+        expected.put(Album.class, ITEM_COUNT * 3L / 10);
+        expected.put(Movie.class, ITEM_COUNT * 3L / 10);
+        check("타입별 개수 " + counts, expected.equals(counts));
+
+        List<Long> books = ids(itemBooksByAuthor());
+        invocation = 0;
+        List<Long> bookSummaries = ids(catalogBooksByAuthor());
+        invocation = 0;
+        check("저자별 도서 " + books.size(), books.size() == LIMIT && books.equals(bookSummaries));
+
+        check("앨범", read(em -> new ItemCatalog(em).findAlbumsByArtist("artist4", LIMIT)).size() == LIMIT);
+        check("영화", read(em -> new ItemCatalog(em).findMoviesByDirector("director7", LIMIT)).size() == LIMIT);
+
+        List<Long> priceRange = ids(itemPriceRange());
+        invocation = 0;
+        List<Long> priceRangeSummaries = ids(catalogPriceRange());
+        invocation = 0;
+        check("가격 범위 " + priceRange.size(), priceRange.size() == LIMIT && priceRange.equals(priceRangeSummaries));
+
+        if (indexes != Indexes.NONE) {
+            checkPlan("select ITEM_ID from Item where DTYPE = 'Book' and price between 1 and 2 order by price, ITEM_ID",
+                    PRICE_INDEX);
+            checkPlan("select ITEM_ID from Item where DTYPE in ('Book', 'Movie') and price between 1 and 2 order by price, ITEM_ID",
+                    PRICE_INDEX);
+        }
+        if (indexes == Indexes.ALL) {
+            checkPlan("select ITEM_ID from Item where DTYPE = 'Book' and author = 'author1' order by ITEM_ID",
+                    "IDX_ITEM_AUTHOR");
+        }
+    }
+
+    private void checkPlan(String sql, String index) {
+        String plan = read(em -> (String) em.createNativeQuery("explain " + sql).getSingleResult());
+        check("실행 계획 " + plan, plan.contains(index));
+    }
+
+    private static List<Long> ids(List<?> results) {
+        List<Long> ids = new ArrayList<>(results.size());
+        for (Object result : results) {
+            ids.add(result instanceof Item ? ((Item) result).getId() : ((ItemSummary) result).getId());
+        }
+        return ids;
+    }
+
+    private static void check(String name, boolean ok) {
+        if (!ok) {
+            throw new IllegalStateException("검증 실패 : " + name);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package jpabook.jpashop.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpabook.jpashop.domain.Book;
+import jpabook.jpashop.domain.Item;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * jpashop 벤치마크 공용 데이터
+ * - 상품 : Book, 이름 "book" + 순번, 가격 10,000 + 순번, 재고 1,000,000
+ * - 회원 : 이름 "member" + 순번
+ * - 주문 : 회원마다 ordersPerMember 건, 주문마다 상품 하나(순서대로 돌아가며) 1개
+ */
+public final class JpashopFixtures {
+
+    private static final int FLUSH_SIZE = 1_000;
+
+    private JpashopFixtures() {
+    }
+
+    public static List<Long> seedItems(EntityManagerFactory emf, int itemCount) {
+        List<Long> ids = new ArrayList<>(itemCount);
+        InMemoryPersistence.inTransaction(emf, em -> {
+            for (int i = 0; i < itemCount; i++) {
+                Book book = new Book();
+                book.setName("book" + i);
+                book.setPrice(10_000 + i);
+                book.setStockQuantity(1_000_000);
+                book.setAuthor("author" + i % 100);
+                book.setIsbn("isbn-" + i);
+                em.persist(book);
+                ids.add(book.getId());
+
+                flushPeriodically(em, i + 1);
+            }
+        });
+        return ids;
+    }
+
+    public static List<Long> seedMembers(EntityManagerFactory emf, int memberCount) {
+        List<Long> ids = new ArrayList<>(memberCount);
+        InMemoryPersistence.inTransaction(emf, em -> {
+            for (int i = 0; i < memberCount; i++) {
+                Member member = new Member();
+                member.setName("member" + i);
+                em.persist(member);
+                ids.add(member.getId());
+
+                flushPeriodically(em, i + 1);
+            }
+        });
+        return ids;
+    }
+
+    public static void seedOrders(EntityManagerFactory emf, int memberCount, int ordersPerMember, List<Long> itemIds) {
+        InMemoryPersistence.inTransaction(emf, em -> {
+            int seq = 0;
+            for (int m = 0; m < memberCount; m++) {
+                Member member = new Member();
+                member.setName("member" + m);
+                em.persist(member);
+
+                for (int o = 0; o < ordersPerMember; o++) {
+                    Item item = em.getReference(Item.class, itemIds.get(seq % itemIds.size()));
+
+                    OrderItem orderItem = new OrderItem();
+                    orderItem.setItem(item);
+                    orderItem.setOrderPrice(10_000);
+                    orderItem.setCount(1);
+
+                    Order order = new Order();
+                    order.setMember(member);
+                    order.setOrderDate(LocalDateTime.now());
+                    order.setStatus(OrderStatus.ORDER);
+                    order.addOrderItem(orderItem);
+                    em.persist(order);
+
+                    if (flushPeriodically(em, ++seq)) {
+                        member = em.getReference(Member.class, member.getId());
+                    }
+                }
+            }
+        });
+    }
+
+    private static boolean flushPeriodically(EntityManager em, int count) {
+        if (count % FLUSH_SIZE != 0) {
+            return false;
+        }
+        em.flush();
+        em.clear();
+        return true;
+    }
+}
@@ -0,0 +1,88 @@
+package jpabook.jpashop.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 영속 상태 주문 5만 건 + 주문상품 5만 건(엔티티 10만 개)의 flush 시간 (변경 감지 비용)
+ * - 반복마다 새 EntityManager 에 주문상품을 주문과 함께 페치 조인으로 올리고
+ *   dirtyPercent 만큼 주문 상태를 바꾼 뒤 flush 한 번을 잰다. (롤백)
+ * - 바이트코드 향상 전/후 비교 방법은 jpql.benchmark.MemberFlushBenchmark 와 같다.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class OrderFlushBenchmark {
+
+    private static final int ORDER_COUNT = 50_000;
+
+    @Param({"0", "1"})
+    private int dirtyPercent;
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.out.println("\nbytecode enhanced : " + SelfDirtinessTracker.class.isAssignableFrom(Order.class));
+        emf = InMemoryPersistence.create("jpashop");
+        List<Long> itemIds = JpashopFixtures.seedItems(emf, 100);
+        JpashopFixtures.seedOrders(emf, ORDER_COUNT / 10, 10, itemIds);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void loadOrders() {
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        List<OrderItem> orderItems = em.createQuery(
+                "select oi from OrderItem oi join fetch oi.order", OrderItem.class)
+                .getResultList();
+        if (orderItems.size() != ORDER_COUNT) {
+            throw new IllegalStateException("주문상품 수 불일치 : " + orderItems.size());
+        }
+        int step = dirtyPercent == 0 ? 0 : 100 / dirtyPercent;
+        for (int i = 0; step > 0 && i < orderItems.size(); i += step) {
+            orderItems.get(i).getOrder().setStatus(OrderStatus.CANCEL);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void rollback() {
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    @Benchmark
+    public void flush() {
+        em.flush();
+    }
+}
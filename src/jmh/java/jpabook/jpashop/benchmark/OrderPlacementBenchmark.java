@@ -0,0 +1,139 @@
+package jpabook.jpashop.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.service.OrderPlacementPipeline;
+import jpabook.jpashop.service.OrderRequest;
+import jpabook.jpashop.service.PlacementReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 2만 건 일괄 저장 : 커밋 단위별 처리량(orders/s)과 p99 지연 시간
+ * - 주문마다 상품 2개, 배송 1건 -> 주문당 INSERT 4건 (ORDERS, ORDERITEM x2, DELIVERY)
+ * - 반복마다 PlacementReport 를 출력한다. (JMH 점수는 2만 건 전체 시간)
+ * - setUp 에서 재고가 부족한 주문은 건너뛰는지, 저장된 주문/주문상품/배송 수와 줄어든 재고가 맞는지 확인한다.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class OrderPlacementBenchmark {
+
+    private static final int ORDER_COUNT = 20_000;
+    private static final int MEMBER_COUNT = 100;
+    private static final int ITEM_COUNT = 100;
+    private static final int VERIFY_ORDER_COUNT = 200;
+
+    @Param({"1", "10", "100", "1000"})
+    private int commitSize;
+
+    private EntityManagerFactory emf;
+    private OrderPlacementPipeline pipeline;
+    private List<OrderRequest> requests;
+    private PlacementReport lastReport;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("hibernate.generate_statistics", "false");
+        emf = InMemoryPersistence.create("jpashop", overrides);
+        List<Long> itemIds = JpashopFixtures.seedItems(emf, ITEM_COUNT);
+        List<Long> memberIds = JpashopFixtures.seedMembers(emf, MEMBER_COUNT);
+
+        pipeline = new OrderPlacementPipeline(emf, commitSize);
+        requests = createRequests(ORDER_COUNT, memberIds, itemIds);
+        verify(memberIds, itemIds);
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        System.out.printf("%n%s%n", lastReport);
+        if (lastReport.getPlaced() != ORDER_COUNT) {
+            throw new IllegalStateException("저장되지 않은 주문이 있음 : " + lastReport);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public PlacementReport place() {
+        lastReport = pipeline.place(requests);
+        return lastReport;
+    }
+
+    private static List<OrderRequest> createRequests(int count, List<Long> memberIds, List<Long> itemIds) {
+        Random random = new Random(count);
+        List<OrderRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(OrderRequest.of(memberIds.get(i % memberIds.size()), new Address("seoul", "street" + i % 100, "12345"))
+                    .line(itemIds.get(random.nextInt(itemIds.size())), 1 + random.nextInt(3))
+                    .line(itemIds.get(random.nextInt(itemIds.size())), 1));
+        }
+        return requests;
+    }
+
+    private void verify(List<Long> memberIds, List<Long> itemIds) {
+        List<OrderRequest> verifyRequests = createRequests(VERIFY_ORDER_COUNT, memberIds, itemIds);
+        long ordered = 0;
+        for (OrderRequest request : verifyRequests) {
+            for (OrderRequest.Line line : request.getLines()) {
+                ordered += line.getCount();
+            }
+        }
+        verifyRequests.add(OrderRequest.of(memberIds.get(0), new Address()).line(itemIds.get(0), Integer.MAX_VALUE));
+
+        long stockBefore = totalStock();
+        PlacementReport report = pipeline.place(verifyRequests);
+        long removed = stockBefore - totalStock();
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            long orders = em.createQuery("select count(o) from Order o", Long.class).getSingleResult();
+            long orderItems = em.createQuery("select count(oi) from OrderItem oi", Long.class).getSingleResult();
+            long deliveries = em.createQuery("select count(d) from Delivery d", Long.class).getSingleResult();
+            if (report.getPlaced() != VERIFY_ORDER_COUNT || report.getRejected() != 1 || report.getFailed() != 0
+                    || orders != VERIFY_ORDER_COUNT || orderItems != VERIFY_ORDER_COUNT * 2L
+                    || deliveries != VERIFY_ORDER_COUNT || removed != ordered) {
+                throw new IllegalStateException("주문 저장 결과 불일치 : " + report + ", orders=" + orders
+                        + ", orderItems=" + orderItems + ", deliveries=" + deliveries + ", stock removed=" + removed);
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    private long totalStock() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("select sum(i.stockQuantity) from Item i", Long.class).getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+}
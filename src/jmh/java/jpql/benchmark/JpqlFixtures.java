@@ -0,0 +1,76 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Member;
+import jpql.MemberType;
+import jpql.Order;
+import jpql.Product;
+import jpql.Team;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * jpql 패키지 벤치마크 공용 데이터
+ * - 회원 이름 : "member" + 순번 (0부터)
+ * - 팀 이름 : "team" + 순번
+ * - 나이 : 순번 % 100
+ */
+final class JpqlFixtures {
+
+    private static final int FLUSH_SIZE = 1_000;
+
+    private JpqlFixtures() {
+    }
+
+    static void seedMembers(EntityManagerFactory emf, int teamCount, int membersPerTeam) {
+        InMemoryPersistence.inTransaction(emf, em -> {
+            int seq = 0;
+            for (int t = 0; t < teamCount; t++) {
+                Team team = new Team();
+                team.setName("team" + t);
+                em.persist(team);
+
+                for (int i = 0; i < membersPerTeam; i++) {
+                    Member member = new Member();
+                    member.setUsername("member" + seq);
+                    member.setAge(seq % 100);
+                    member.setType(seq % 10 == 0 ? MemberType.ADMIN : MemberType.USER);
+                    member.setTeam(team);
+                    em.persist(member);
+
+                    if (++seq % FLUSH_SIZE == 0) {
+                        em.flush();
+                        em.clear();
+                        team = em.getReference(Team.class, team.getId());
+                    }
+                }
+            }
+        });
+    }
+
+    static void seedOrders(EntityManagerFactory emf, int productCount, int ordersPerProduct) {
+        InMemoryPersistence.inTransaction(emf, em -> {
+            int seq = 0;
+            for (int p = 0; p < productCount; p++) {
+                Product product = new Product();
+                product.setName("product" + p);
+                product.setPrice(1_000 + p);
+                product.setStockAmount(100);
+                em.persist(product);
+
+                for (int i = 0; i < ordersPerProduct; i++) {
+                    Order order = new Order();
+                    order.setOrderAmount(1 + seq % 10);
+                    order.setProduct(product);
+                    em.persist(order);
+
+                    if (++seq % FLUSH_SIZE == 0) {
+                        em.flush();
+                        em.clear();
+                        product = em.getReference(Product.class, product.getId());
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,130 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Member;
+import jpql.MemberDTO;
+import jpql.Team;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * jpql 쿼리 경로 처리량 측정
+ * - 네임드 쿼리, 페치 조인(단일 값 / 컬렉션), DTO 프로젝션, 벌크 연산
+ * - 매 호출마다 EntityManager 를 새로 만들어서 실제 요청 단위(영속성 컨텍스트 생성 ~ 종료)를 측정한다.
+ * - 할당량은 GC 프로파일러로 확인 : java -jar target/benchmarks.jar JpqlQueryBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JpqlQueryBenchmark {
+
+    @Param({"10"})
+    private int teamCount;
+
+    @Param({"100"})
+    private int membersPerTeam;
+
+    private EntityManagerFactory emf;
+
+    private int memberCount;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = InMemoryPersistence.create("hello");
+        JpqlFixtures.seedMembers(emf, teamCount, membersPerTeam);
+        memberCount = teamCount * membersPerTeam;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Member> namedQuery() {
+        String username = "member" + (cursor++ % memberCount);
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createNamedQuery("Member.findByUsername", Member.class)
+                    .setParameter("username", username)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<Member> fetchJoinToOne() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("select m from Member m join fetch m.team", Member.class)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<Team> fetchJoinCollection() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("select distinct t from Team t join fetch t.members", Team.class)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<MemberDTO> dtoProjection() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("select new jpql.MemberDTO(m.username, m.age) from Member m", MemberDTO.class)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public int bulkUpdate() {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            int resultCount = em.createQuery("update Member m set m.age = m.age + 1"
+                    + " where m.team.id in (select t.id from Team t where t.name = :teamName)")
+                    .setParameter("teamName", "team" + (cursor++ % teamCount))
+                    .executeUpdate();
+            tx.commit();
+            return resultCount;
+        } catch (RuntimeException e) {
+            tx.rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+}
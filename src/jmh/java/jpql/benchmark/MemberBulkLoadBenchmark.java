@@ -0,0 +1,123 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Member;
+import jpql.Team;
+import jpql.bulk.LoadReport;
+import jpql.bulk.MemberBulkLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1M 회원 적재 : MemberBulkLoader
+ * - 측정마다 새 인메모리 DB에 적재하고, 끝나면 적재된 행 수를 검증한다. (불일치 시 실패)
+ * - 청크/배치 크기를 바꿔가며 비교 : -p chunkSize=100,1000,10000 -p jdbcBatchSize=1,100
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class MemberBulkLoadBenchmark {
+
+    @Param({"1000000"})
+    private int memberCount;
+
+    @Param({"100"})
+    private int membersPerTeam;
+
+    @Param({"1000"})
+    private int chunkSize;
+
+    @Param({"100"})
+    private int jdbcBatchSize;
+
+    private EntityManagerFactory emf;
+
+    private LoadReport report;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        emf = InMemoryPersistence.create("hello");
+    }
+
+    @TearDown(Level.Iteration)
+    public void verifyAndClose() {
+        try {
+            EntityManager em = emf.createEntityManager();
+            long stored = em.createQuery("select count(m) from Member m", Long.class).getSingleResult();
+            em.close();
+
+            if (stored != memberCount || report.getMembers() != memberCount) {
+                throw new IllegalStateException("적재된 회원 수 불일치 : expected=" + memberCount
+                        + ", stored=" + stored + ", reported=" + report.getMembers());
+            }
+            System.out.println(report);
+        } finally {
+            emf.close();
+        }
+    }
+
+    @Benchmark
+    public LoadReport load() {
+        MemberBulkLoader loader = new MemberBulkLoader(emf, chunkSize, jdbcBatchSize);
+        report = loader.load(new TeamGraphs(memberCount, membersPerTeam));
+        return report;
+    }
+
+    /**
+     * 팀 그래프를 필요할 때마다 하나씩 만든다. (입력 데이터가 힙을 차지하지 않게)
+     */
+    private static class TeamGraphs implements Iterator<Team> {
+
+        private final int memberCount;
+        private final int membersPerTeam;
+        private int created;
+
+        TeamGraphs(int memberCount, int membersPerTeam) {
+            this.memberCount = memberCount;
+            this.membersPerTeam = membersPerTeam;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return created < memberCount;
+        }
+
+        @Override
+        public Team next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Team team = new Team();
+            team.setName("team" + created / membersPerTeam);
+
+            int end = Math.min(created + membersPerTeam, memberCount);
+            for (; created < end; created++) {
+                Member member = new Member();
+                member.setUsername("member" + created);
+                member.setAge(created % 100);
+                member.changeTeam(team);
+            }
+            return team;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Member;
+import jpql.bulk.MemberBulkUpdater;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 영속 상태 회원 1만 명 중 한 팀(100명)만 벌크 UPDATE : MemberBulkUpdater 동기화 방식별 시간
+ * - 반복마다 새 EntityManager 에 회원 1만 명을 올리고, 팀 하나의 나이를 바꾸는 벌크 연산 한 번을 잰다. (롤백)
+ *   -> 영속 상태 회원의 식별자 수집 + 대상 조회 + 벌크 UPDATE + 대상 100명 refresh/detach
+ * - setUp 에서 MemberBulkUpdater 의 동작을 확인한다. (불일치 시 실패)
+ *   -> REFRESH : 대상 회원은 같은 인스턴스가 영속 상태로 남고 바뀐 값이 반영된다.
+ *   -> DETACH : 대상 회원은 준영속, em.find() 로 바뀐 값을 새로 조회한다. (2차 캐시에 이전 값이 있어도)
+ *   -> 대상이 아닌 회원은 영속 상태 그대로, 값도 그대로
+ *   -> 2차 캐시 : 트랜잭션이 끝나면(롤백 포함) 대상이 아닌 회원까지 jpql.Member 리전 전체가 비워진다. (클래스 문서 참고)
+ *      이후 대상, 대상이 아닌 회원 모두 2차 캐시 적중 없이 DB 값(롤백 후 이전 나이)을 읽는다.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemberBulkUpdateBenchmark {
+
+    private static final int TEAM_COUNT = 100;
+    private static final int MEMBERS_PER_TEAM = 100;
+    private static final int NEW_AGE = 1_000;
+
+    @Param({"REFRESH", "DETACH"})
+    private MemberBulkUpdater.SyncMode syncMode;
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private Long teamId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = InMemoryPersistence.create("hello");
+        JpqlFixtures.seedMembers(emf, TEAM_COUNT, MEMBERS_PER_TEAM);
+        verify();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void loadMembers() {
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+        if (members.size() != TEAM_COUNT * MEMBERS_PER_TEAM) {
+            throw new IllegalStateException("회원 수 불일치 : " + members.size());
+        }
+        teamId = members.get(0).getTeam().getId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void rollback() {
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    @Benchmark
+    public int updateOneTeam() {
+        return updateAge(em, teamId);
+    }
+
+    private int updateAge(EntityManager em, Long teamId) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("age", NEW_AGE);
+        parameters.put("teamId", teamId);
+        return new MemberBulkUpdater(em, syncMode).update("m.age = :age", "m.team.id = :teamId", parameters);
+    }
+
+    private void verify() {
+        Cache cache = emf.getCache();
+        Long targetId;
+        Long otherId;
+        int targetAge;
+        int otherAge;
+
+        loadMembers();
+        try {
+            List<Member> targets = new ArrayList<>();
+            List<Member> others = new ArrayList<>();
+            for (Member member : em.createQuery("select m from Member m", Member.class).getResultList()) {
+                (member.getTeam().getId().equals(teamId) ? targets : others).add(member);
+            }
+            Member other = others.get(0);
+            otherAge = other.getAge();
+            targetAge = targets.get(0).getAge();
+            targetId = targets.get(0).getId();
+            otherId = other.getId();
+
+            InMemoryPersistence.inTransaction(emf, reader -> {
+                reader.find(Member.class, targetId);
+                reader.find(Member.class, otherId);
+            });
+            check("2차 캐시 적재", cache.contains(Member.class, targetId) && cache.contains(Member.class, otherId));
+
+            int updated = updateAge(em, teamId);
+            check("영향 받은 회원 수 " + updated, updated == MEMBERS_PER_TEAM && targets.size() == MEMBERS_PER_TEAM);
+
+            for (Member target : targets) {
+                if (syncMode == MemberBulkUpdater.SyncMode.REFRESH) {
+                    check("대상 refresh " + target.getId(), em.contains(target) && target.getAge() == NEW_AGE);
+                } else {
+                    check("대상 detach " + target.getId(), !em.contains(target)
+                            && em.find(Member.class, target.getId()).getAge() == NEW_AGE);
+                }
+            }
+            for (Member each : others) {
+                check("대상 아님 " + each.getId(), em.contains(each) && each.getAge() != NEW_AGE
+                        && em.find(Member.class, each.getId()) == each);
+            }
+            check("대상 아님 나이 그대로", other.getAge() == otherAge);
+        } finally {
+            rollback();
+        }
+
+        check("2차 캐시 리전 비움", !cache.contains(Member.class, otherId));
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long hits = statistics.getSecondLevelCacheHitCount();
+        int[] ages = new int[2];
+        InMemoryPersistence.inTransaction(emf, reader -> {
+            ages[0] = reader.find(Member.class, targetId).getAge();
+            ages[1] = reader.find(Member.class, otherId).getAge();
+        });
+        check("롤백 후 DB 값 조회 " + Arrays.toString(ages), statistics.getSecondLevelCacheHitCount() == hits
+                && ages[0] == targetAge && ages[1] == otherAge);
+    }
+
+    private static void check(String name, boolean ok) {
+        if (!ok) {
+            throw new IllegalStateException("검증 실패 : " + name);
+        }
+    }
+}
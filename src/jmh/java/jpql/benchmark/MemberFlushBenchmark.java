@@ -0,0 +1,85 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Member;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 영속 상태 회원 10만 명의 flush 시간 (변경 감지 비용)
+ * - 반복마다 새 EntityManager 에 회원 10만 명을 올리고 dirtyPercent 만큼 수정한 뒤 flush 한 번을 잰다. (롤백)
+ * - 바이트코드 향상 전/후 비교 : 빌드를 두 번 해서 각각 실행한다.
+ *   -> 향상 : mvn -Pjmh package
+ *   -> 향상 안 함 : mvn -Pjmh package -Denhance.phase=none
+ *   (setUp 에서 어느 쪽인지 출력)
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class MemberFlushBenchmark {
+
+    private static final int MEMBER_COUNT = 100_000;
+
+    @Param({"0", "1"})
+    private int dirtyPercent;
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.out.println("\nbytecode enhanced : " + SelfDirtinessTracker.class.isAssignableFrom(Member.class));
+        emf = InMemoryPersistence.create("hello");
+        JpqlFixtures.seedMembers(emf, 100, MEMBER_COUNT / 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void loadMembers() {
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+        if (members.size() != MEMBER_COUNT) {
+            throw new IllegalStateException("회원 수 불일치 : " + members.size());
+        }
+        int step = dirtyPercent == 0 ? 0 : 100 / dirtyPercent;
+        for (int i = 0; step > 0 && i < members.size(); i += step) {
+            members.get(i).setAge(members.get(i).getAge() + 1);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void rollback() {
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    @Benchmark
+    public void flush() {
+        em.flush();
+    }
+}
@@ -0,0 +1,143 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Member;
+import jpql.paging.MemberKeysetPager;
+import jpql.paging.MemberPage;
+import jpql.paging.MemberSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 목록 한 페이지 조회 : 오프셋 페이징 vs 키셋 페이징
+ * - page 가 0 일 때와 10,000 일 때를 비교한다. (키셋은 페이지 깊이와 관계없이 일정해야 함)
+ * - 키셋 페이징 커서는 setUp 에서 직전 페이지의 마지막 회원으로 만든다.
+ * - 두 방식의 결과가 같은지 setUp 에서 확인한다.
+ * - 결과 확인 : 오프셋은 page 에 비례해서 느려지고, 키셋은 page 0 과 10,000 의 차이가 거의 없다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemberPagingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_PAGE = 10_000;
+    private static final int TEAM_COUNT = 1_000;
+
+    @Param({"0", "10000"})
+    private int page;
+
+    @Param({"AGE", "USERNAME"})
+    private MemberSort sort;
+
+    private EntityManagerFactory emf;
+
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // H2는 테이블이 바뀌지 않았으면 같은 쿼리의 이전 결과를 재사용하므로 끈다.
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("javax.persistence.jdbc.url",
+                "jdbc:h2:mem:paging-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        emf = InMemoryPersistence.create("hello", overrides);
+        // MAX_PAGE 페이지까지 가득 차도록 한 팀을 더 채운다.
+        JpqlFixtures.seedMembers(emf, TEAM_COUNT, (MAX_PAGE + 1) * PAGE_SIZE / TEAM_COUNT + 1);
+
+        if (page > 0) {
+            cursor = cursorBefore(page);
+            if (cursor == null) {
+                throw new IllegalStateException(page + " 페이지가 없습니다.");
+            }
+        }
+        verifySamePage();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Member> offset() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("select m from Member m order by " + sortPath() + ", m.id", Member.class)
+                    .setFirstResult(page * PAGE_SIZE)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<Member> keyset() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            MemberKeysetPager pager = new MemberKeysetPager(em);
+            MemberPage result = cursor == null ? pager.first(sort, PAGE_SIZE) : pager.next(cursor, PAGE_SIZE);
+            return result.getContent();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * page 번째 페이지의 커서 = page - 1 번째 페이지 커서로 조회한 결과의 nextCursor
+     * - 앞 페이지부터 차례로 넘겨서 만든다. (실제 사용 방식과 같음)
+     */
+    private String cursorBefore(int page) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            MemberKeysetPager pager = new MemberKeysetPager(em);
+            MemberPage result = pager.first(sort, PAGE_SIZE);
+            for (int i = 1; i < page; i++) {
+                result = pager.next(result.getNextCursor(), PAGE_SIZE);
+                em.clear();
+            }
+            return result.getNextCursor();
+        } finally {
+            em.close();
+        }
+    }
+
+    private void verifySamePage() {
+        List<Member> expected = offset();
+        List<Member> actual = keyset();
+        if (expected.size() != PAGE_SIZE || actual.size() != PAGE_SIZE) {
+            throw new IllegalStateException("페이지 크기 불일치 : offset=" + expected.size() + ", keyset=" + actual.size());
+        }
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            if (!expected.get(i).getId().equals(actual.get(i).getId())) {
+                throw new IllegalStateException(i + " 번째 회원 불일치 : offset=" + expected.get(i) + ", keyset=" + actual.get(i));
+            }
+        }
+    }
+
+    private String sortPath() {
+        return sort == MemberSort.AGE ? "m.age" : "m.username";
+    }
+}
@@ -0,0 +1,179 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.MemberDTO;
+import jpql.projection.ProjectionMapper;
+import jpql.stream.MemberStreamer;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 100만 건 DTO 변환 : 생성자 표현식(select new) vs ProjectionMapper
+ * - db* : 실제 조회 + 변환 (스크롤로 한 행씩 처리)
+ *   -> dbConstructorExpression : select new jpql.MemberDTO(m.username, m.age)
+ *   -> dbProjectionMapper : select m.username, m.age 를 스트리밍하면서 ProjectionMapper.map
+ *   -> dbReusingBuffer : MemberStreamer.forEachMemberDTOReusing (DTO 하나 재사용)
+ * - mapping* : DB 없이 미리 만든 행(Object[]) 100만 개의 변환 비용만 비교
+ *   -> mappingReflection : 하이버네이트 생성자 표현식과 같은 방식(Constructor.newInstance)
+ * - 할당량은 -prof gc 의 gc.alloc.rate.norm 으로 비교한다.
+ * - Database 상태의 setUp 에서 세 가지 변환 결과가 같은지 확인한다.
+ * - mapping* 은 DB를 띄우지 않도록 상태를 나눴다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MemberProjectionBenchmark {
+
+    private static final int ROW_COUNT = 1_000_000;
+
+    private static final ProjectionMapper<MemberDTO> MAPPER =
+            ProjectionMapper.of(MemberDTO.class, String.class, int.class).withProperties("username", "age");
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        private EntityManagerFactory emf;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            emf = InMemoryPersistence.create("hello");
+            JpqlFixtures.seedMembers(emf, 1_000, ROW_COUNT / 1_000);
+            verifySameResult();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            emf.close();
+        }
+
+        private void verifySameResult() {
+            EntityManager em = emf.createEntityManager();
+            try {
+                List<MemberDTO> expected = em.createQuery(
+                        "select new jpql.MemberDTO(m.username, m.age) from Member m order by m.id", MemberDTO.class)
+                        .setMaxResults(100)
+                        .getResultList();
+                List<MemberDTO> transformed = MAPPER.mapAll(rowQuery(em).setMaxResults(100).getResultList());
+
+                MemberStreamer streamer = new MemberStreamer(em);
+                int[] index = {0};
+                streamer.forEachMemberDTOReusing(dto -> {
+                    if (index[0] < expected.size()) {
+                        verifySame(expected.get(index[0]), dto);
+                        verifySame(expected.get(index[0]), transformed.get(index[0]));
+                    }
+                    index[0]++;
+                });
+                if (index[0] != ROW_COUNT) {
+                    throw new IllegalStateException("스트리밍 행 수 불일치 : " + index[0]);
+                }
+            } finally {
+                em.close();
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Rows {
+
+        private Object[][] rows;
+        private Constructor<MemberDTO> constructor;
+
+        @Setup(Level.Trial)
+        public void setUp() throws ReflectiveOperationException {
+            rows = new Object[ROW_COUNT][];
+            for (int i = 0; i < ROW_COUNT; i++) {
+                rows[i] = new Object[]{"member" + i, i % 100};
+            }
+            constructor = MemberDTO.class.getConstructor(String.class, int.class);
+        }
+    }
+
+    @Benchmark
+    public long dbConstructorExpression(Database db, Blackhole bh) {
+        EntityManager em = db.emf.createEntityManager();
+        try {
+            return new MemberStreamer(em).forEachMemberDTO(dto -> bh.consume(dto.getAge()));
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public long dbProjectionMapper(Database db, Blackhole bh) {
+        EntityManager em = db.emf.createEntityManager();
+        try {
+            MemberStreamer streamer = new MemberStreamer(em);
+            return streamer.stream(rowQuery(em))
+                    .map(MAPPER::map)
+                    .peek(dto -> bh.consume(dto.getAge()))
+                    .count();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public long dbReusingBuffer(Database db, Blackhole bh) {
+        EntityManager em = db.emf.createEntityManager();
+        try {
+            return new MemberStreamer(em).forEachMemberDTOReusing(dto -> bh.consume(dto.getAge()));
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public void mappingReflection(Rows rows, Blackhole bh) throws ReflectiveOperationException {
+        for (Object[] row : rows.rows) {
+            bh.consume(rows.constructor.newInstance(row));
+        }
+    }
+
+    @Benchmark
+    public void mappingLambda(Rows rows, Blackhole bh) {
+        for (Object[] row : rows.rows) {
+            bh.consume(MAPPER.map(row));
+        }
+    }
+
+    @Benchmark
+    public void mappingReusingBuffer(Rows rows, Blackhole bh) {
+        MemberDTO buffer = new MemberDTO(null, 0);
+        for (Object[] row : rows.rows) {
+            bh.consume(MAPPER.mapInto(row, buffer).getAge());
+        }
+    }
+
+    private static Query<Object[]> rowQuery(EntityManager em) {
+        return em.unwrap(Session.class)
+                .createQuery("select m.username, m.age from Member m order by m.id", Object[].class);
+    }
+
+    private static void verifySame(MemberDTO expected, MemberDTO actual) {
+        if (!expected.getUsername().equals(actual.getUsername()) || expected.getAge() != actual.getAge()) {
+            throw new IllegalStateException("변환 결과 불일치 : " + expected.getUsername() + " / " + actual.getUsername());
+        }
+    }
+}
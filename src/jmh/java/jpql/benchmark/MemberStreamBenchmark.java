@@ -0,0 +1,85 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Member;
+import jpql.MemberDTO;
+import jpql.stream.MemberStreamer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 전체 회원 내보내기 : getResultList() vs MemberStreamer
+ * - 힙 사용량 비교는 -prof gc 의 gc.alloc.rate.norm 과 힙 크기를 줄인 실행(-jvmArgs -Xmx256m)으로 확인한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemberStreamBenchmark {
+
+    @Param({"100000"})
+    private int memberCount;
+
+    private EntityManagerFactory emf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = InMemoryPersistence.create("hello");
+        JpqlFixtures.seedMembers(emf, 100, memberCount / 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public void resultList(Blackhole bh) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (Member member : em.createQuery("select m from Member m order by m.id", Member.class).getResultList()) {
+                bh.consume(member.getUsername());
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public long streamMembers(Blackhole bh) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return new MemberStreamer(em).forEachMember(member -> bh.consume(member.getUsername()));
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public long streamMemberDTOs(Blackhole bh) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return new MemberStreamer(em).forEachMemberDTO((MemberDTO dto) -> bh.consume(dto.getUsername()));
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Member;
+import jpql.monitor.NPlusOneDetector;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NPlusOneDetector 감지 확인 + 작업 단위 비용
+ * - 팀 5개 x 회원 3명을 조회하고 Member.team 을 하나씩 초기화한다. (배치 페치 끔 -> 팀마다 SELECT 1번 = N+1)
+ * - detect = false : 작업 단위 없이 같은 작업 (비교용)
+ * - setUp 에서 기본 빌드(바이트코드 향상)와 -Denhance.phase=none 빌드 모두 Member.team N+1 이 보고되는지 검사한다.
+ *   -> 향상 빌드는 팀이 프록시가 아닌 초기화 전 Team 인스턴스라서 IMMEDIATE_LOAD 이벤트가 없다. (LazyLoadListeners 참고)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NPlusOneDetectorBenchmark {
+
+    private static final int TEAM_COUNT = 5;
+    private static final int MEMBERS_PER_TEAM = 3;
+
+    @Param({"true", "false"})
+    private boolean detect;
+
+    private EntityManagerFactory emf;
+
+    @Setup
+    public void setUp() {
+        System.out.println("\nbytecode enhanced : " + SelfDirtinessTracker.class.isAssignableFrom(Member.class));
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("hibernate.default_batch_fetch_size", "1");
+        InMemoryPersistence.disableCaching(overrides);
+        emf = InMemoryPersistence.create("hello", overrides);
+        JpqlFixtures.seedMembers(emf, TEAM_COUNT, MEMBERS_PER_TEAM);
+        verify();
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    private void verify() {
+        EntityManager em = emf.createEntityManager();
+        try (NPlusOneDetector.UnitOfWork unitOfWork = NPlusOneDetector.begin()) {
+            int touched = touchTeams(em);
+            check("회원 수", touched == TEAM_COUNT * MEMBERS_PER_TEAM);
+            check("전체 SQL 수 (회원 1 + 팀 " + TEAM_COUNT + ") : " + unitOfWork.getStatementCount(),
+                    unitOfWork.getStatementCount() == 1 + TEAM_COUNT);
+            check("Member.team 지연 로딩 SQL : " + unitOfWork.getLazyLoadStatements(),
+                    Integer.valueOf(TEAM_COUNT).equals(unitOfWork.getLazyLoadStatements().get("jpql.Team")));
+            check("N+1 보고 : " + unitOfWork.getSuspects(),
+                    unitOfWork.getSuspects().containsKey("jpql.Team"));
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void check(String name, boolean ok) {
+        if (!ok) {
+            throw new IllegalStateException("검증 실패 : " + name);
+        }
+    }
+
+    private static int touchTeams(EntityManager em) {
+        List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+        int length = 0;
+        for (Member member : members) {
+            length += member.getTeam().getName().isEmpty() ? 0 : 1;
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int lazyTeams() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            if (!detect) {
+                return touchTeams(em);
+            }
+            try (NPlusOneDetector.UnitOfWork ignored = NPlusOneDetector.begin(NPlusOneDetector.Mode.LOG, Integer.MAX_VALUE)) {
+                return touchTeams(em);
+            }
+        } finally {
+            em.close();
+        }
+    }
+}
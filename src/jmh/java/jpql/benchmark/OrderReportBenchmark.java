@@ -0,0 +1,131 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Order;
+import jpql.report.OrderReportReader;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 주문 10만 건(+ 상품) 리포트 조회 : 일반 EntityManager vs 읽기 전용 vs StatelessSession (OrderReportReader)
+ * - 처리량 : 결과 시간(ms/op), 할당량 : -prof gc 의 gc.alloc.rate.norm
+ * - setUp 에서 조회 결과를 잡고 있는 동안의 힙 사용량(GC 후)을 방식별로 출력한다.
+ *   (일반 EntityManager 는 영속성 컨텍스트의 스냅샷까지 포함)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class OrderReportBenchmark {
+
+    private static final int ORDER_COUNT = 100_000;
+
+    private EntityManagerFactory emf;
+    private OrderReportReader reader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = InMemoryPersistence.create("hello");
+        JpqlFixtures.seedOrders(emf, 100, ORDER_COUNT / 100);
+        reader = new OrderReportReader(emf);
+
+        printRetainedHeap();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public void entityManager(Blackhole bh) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        try {
+            for (Order order : findAll(em)) {
+                bh.consume(order.getProduct().getName());
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public void readOnly(Blackhole bh) {
+        for (Order order : reader.findOrders(0, ORDER_COUNT)) {
+            bh.consume(order.getProduct().getName());
+        }
+    }
+
+    @Benchmark
+    public long stateless(Blackhole bh) {
+        return reader.forEachOrder(order -> bh.consume(order.getProduct().getName()));
+    }
+
+    private static List<Order> findAll(EntityManager em) {
+        return em.createQuery("select o from Order o join fetch o.product order by o.id", Order.class)
+                .getResultList();
+    }
+
+    private void printRetainedHeap() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            long entityManager = retainedHeap(() -> findAll(em));
+            if (em.unwrap(Session.class).getStatistics().getEntityCount() < ORDER_COUNT) {
+                throw new IllegalStateException("영속성 컨텍스트에 주문이 없습니다.");
+            }
+            em.clear();
+
+            long readOnly = retainedHeap(() -> reader.findOrders(0, ORDER_COUNT));
+            long stateless = retainedHeap(() -> {
+                List<Order> orders = new ArrayList<>(ORDER_COUNT);
+                reader.forEachOrder(orders::add);
+                return orders;
+            });
+            System.out.printf("%nretained heap per %,d orders : entityManager=%,d KB, readOnly=%,d KB, stateless=%,d KB%n",
+                    ORDER_COUNT, entityManager / 1024, readOnly / 1024, stateless / 1024);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * 결과를 잡고 있는 동안 늘어난 힙 사용량 (결과 목록 + 영속성 컨텍스트)
+     */
+    private static long retainedHeap(Supplier<List<Order>> query) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        List<Order> orders = query.get();
+        System.gc();
+        long after = memory.getHeapMemoryUsage().getUsed();
+        if (orders.size() != ORDER_COUNT) {
+            throw new IllegalStateException("주문 수 불일치 : " + orders.size());
+        }
+        return after - before;
+    }
+}
@@ -0,0 +1,95 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Member;
+import jpql.cache.CacheStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Member.findByUsername 지연 시간 : 쿼리 캐시 사용 vs 미사용
+ * - SampleTime 모드 결과의 p0.50, p0.99 를 비교한다.
+ * - 시작할 때 벌크 연산 후 캐시된 결과가 무효화되는지 확인한다. (오래된 결과가 나오면 실패)
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryCacheBenchmark {
+
+    private static final int HOT_USERNAMES = 100;
+
+    @Param({"true", "false"})
+    private boolean queryCache;
+
+    private EntityManagerFactory emf;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("hibernate.cache.use_query_cache", String.valueOf(queryCache));
+        emf = InMemoryPersistence.create("hello", overrides);
+        JpqlFixtures.seedMembers(emf, 100, 100);
+        verifyBulkUpdateInvalidation();
+        new CacheStatistics(emf).clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (queryCache) {
+            CacheStatistics statistics = new CacheStatistics(emf);
+            System.out.printf("%nquery cache hit ratio : %.3f%n",
+                    statistics.getHitRatio(CacheStatistics.MEMBER_BY_USERNAME_REGION));
+        }
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Member> findByUsername() {
+        return findByUsername("member" + (cursor++ % HOT_USERNAMES));
+    }
+
+    private List<Member> findByUsername(String username) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createNamedQuery("Member.findByUsername", Member.class)
+                    .setParameter("username", username)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    private void verifyBulkUpdateInvalidation() {
+        findByUsername("member0");
+        InMemoryPersistence.inTransaction(emf, em ->
+                em.createQuery("update Member m set m.age = 20").executeUpdate());
+
+        int age = findByUsername("member0").get(0).getAge();
+        if (age != 20) {
+            throw new IllegalStateException("벌크 연산 후 쿼리 캐시가 무효화되지 않음 : age=" + age);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Member;
+import jpql.Team;
+import jpql.monitor.QueryMetricSnapshot;
+import jpql.monitor.QueryMetrics;
+import jpql.monitor.QueryMetricsStatistics;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QueryMetricsStatistics 기록 확인 + 비용
+ * - 회원 한 명을 em.find() 로 조회한 직후 다른 회원의 나이를 JPQL 로 조회한다. (트랜잭션 없음)
+ * - metrics = false : 통계를 끄고 같은 작업 (비교용)
+ * - setUp 에서 쿼리 직전의 쿼리가 아닌 SQL이 쿼리 기록에 섞이지 않는지 검사한다. (로딩 엔티티 수로 확인, 반복해서 워밍업 후에도 확인)
+ *   -> em.find(), 지연 로딩(Member.team) 직후 : 나이 조회는 엔티티를 만들지 않으므로 0
+ *   -> 트랜잭션 안에서 persist(시퀀스 조회) + 자동 flush(INSERT) 직후 : 마찬가지로 0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryMetricsBenchmark {
+
+    private static final int TEAM_COUNT = 10;
+    private static final int MEMBERS_PER_TEAM = 10;
+    private static final int ROUNDS = 200;
+
+    private static final String AGE_QUERY = "select m.age from Member m where m.id = :id";
+    private static final String MEMBER_QUERY = "select m from Member m where m.id = :id";
+
+    @Param({"true", "false"})
+    private boolean metrics;
+
+    private EntityManagerFactory emf;
+    private Long firstId;
+    private Long secondId;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> overrides = new HashMap<>();
+        InMemoryPersistence.disableCaching(overrides);
+        if (!metrics) {
+            overrides.put("hibernate.generate_statistics", "false");
+        }
+        emf = InMemoryPersistence.create("hello", overrides);
+        JpqlFixtures.seedMembers(emf, TEAM_COUNT, MEMBERS_PER_TEAM);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            firstId = em.createQuery("select min(m.id) from Member m", Long.class).getSingleResult();
+            secondId = em.createQuery("select max(m.id) from Member m", Long.class).getSingleResult();
+        } finally {
+            em.close();
+        }
+        if (metrics) {
+            verify();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    private void verify() {
+        QueryMetrics queryMetrics = ((QueryMetricsStatistics) emf.unwrap(SessionFactoryImplementor.class)
+                .getStatistics()).getQueryMetrics();
+
+        for (int i = 0; i < ROUNDS; i++) {
+            findThenQuery();
+        }
+        checkNoEntities(queryMetrics, "em.find() 직후");
+
+        for (int i = 0; i < ROUNDS; i++) {
+            EntityManager em = emf.createEntityManager();
+            try {
+                Member member = em.createQuery(MEMBER_QUERY, Member.class)
+                        .setParameter("id", firstId)
+                        .getSingleResult();
+                member.getTeam().getName();
+                ageOf(em, secondId);
+            } finally {
+                em.close();
+            }
+        }
+        checkNoEntities(queryMetrics, "지연 로딩 직후");
+
+        for (int i = 0; i < ROUNDS; i++) {
+            EntityManager em = emf.createEntityManager();
+            em.getTransaction().begin();
+            try {
+                Member member = new Member();
+                member.setUsername("metrics" + i);
+                member.setTeam(em.getReference(Team.class, em.find(Member.class, firstId).getTeam().getId()));
+                em.persist(member);
+                ageOf(em, secondId);
+            } finally {
+                em.getTransaction().rollback();
+                em.close();
+            }
+        }
+        checkNoEntities(queryMetrics, "persist + 자동 flush 직후");
+    }
+
+    private static void checkNoEntities(QueryMetrics queryMetrics, String name) {
+        QueryMetricSnapshot snapshot = queryMetrics.snapshot(AGE_QUERY);
+        check(name + " 실행 횟수", snapshot != null && snapshot.getExecutionCount() == ROUNDS);
+        check(name + " 로딩 엔티티 수 " + snapshot.getEntitiesLoaded(), snapshot.getEntitiesLoaded() == 0);
+        queryMetrics.clear();
+    }
+
+    private static void check(String name, boolean ok) {
+        if (!ok) {
+            throw new IllegalStateException("검증 실패 : " + name);
+        }
+    }
+
+    private static int ageOf(EntityManager em, Long id) {
+        return em.createQuery(AGE_QUERY, Integer.class)
+                .setParameter("id", id)
+                .getSingleResult();
+    }
+
+    @Benchmark
+    public int findThenQuery() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(Member.class, firstId).getAge() + ageOf(em, secondId);
+        } finally {
+            em.close();
+        }
+    }
+}
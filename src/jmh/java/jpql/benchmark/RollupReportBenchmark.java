@@ -0,0 +1,206 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Member;
+import jpql.Order;
+import jpql.report.OrderAmountRank;
+import jpql.report.RollupReport;
+import jpql.report.TeamAgeDistribution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 집계 리포트 : 엔티티를 모두 조회해서 자바로 계산 vs MyH2Dialect 집계/윈도우 함수 (RollupReport)
+ * - 팀 100개 x 회원 1,000명의 나이 분포, 상품 100개 x 주문 1,000건의 상품별 수량 순위
+ * - setUp 에서 두 방식의 결과가 같은지 확인한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RollupReportBenchmark {
+
+    private EntityManagerFactory emf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // H2는 테이블이 바뀌지 않았으면 같은 쿼리의 이전 결과를 재사용하므로 끈다.
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("javax.persistence.jdbc.url",
+                "jdbc:h2:mem:rollup-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        emf = InMemoryPersistence.create("hello", overrides);
+        JpqlFixtures.seedMembers(emf, 100, 1_000);
+        JpqlFixtures.seedOrders(emf, 100, 1_000);
+        verifySameResult();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<TeamAgeDistribution> ageDistributionInJvm() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Member> members = em.createQuery("select m from Member m join fetch m.team", Member.class)
+                    .getResultList();
+
+            Map<String, List<Integer>> agesByTeam = new TreeMap<>();
+            for (Member member : members) {
+                agesByTeam.computeIfAbsent(member.getTeam().getName(), name -> new ArrayList<>()).add(member.getAge());
+            }
+
+            List<TeamAgeDistribution> result = new ArrayList<>(agesByTeam.size());
+            agesByTeam.forEach((teamName, ages) -> {
+                ages.sort(Comparator.naturalOrder());
+                double sum = 0;
+                for (int age : ages) {
+                    sum += age;
+                }
+                result.add(new TeamAgeDistribution(teamName, ages.size(), ages.get(0), ages.get(ages.size() - 1),
+                        sum / ages.size(), percentileCont(ages, 0.25), percentileCont(ages, 0.5),
+                        percentileCont(ages, 0.75), percentileCont(ages, 0.9)));
+            });
+            return result;
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<TeamAgeDistribution> ageDistributionInSql() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return new RollupReport(em).teamAgeDistributions();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<OrderAmountRank> orderRankInJvm() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Order> orders = em.createQuery("select o from Order o join fetch o.product", Order.class)
+                    .getResultList();
+            orders.sort(Comparator.comparing((Order o) -> o.getProduct().getName())
+                    .thenComparing(Order::getOrderAmount, Comparator.reverseOrder())
+                    .thenComparing(Order::getId));
+
+            List<OrderAmountRank> result = new ArrayList<>(orders.size());
+            String productName = null;
+            int previousAmount = -1;
+            long rank = 0;
+            for (int i = 0, position = 0; i < orders.size(); i++, position++) {
+                Order order = orders.get(i);
+                if (!order.getProduct().getName().equals(productName)) {
+                    productName = order.getProduct().getName();
+                    position = 0;
+                    previousAmount = -1;
+                }
+                if (order.getOrderAmount() != previousAmount) {
+                    rank = position + 1;
+                    previousAmount = order.getOrderAmount();
+                }
+                result.add(new OrderAmountRank(order.getId(), productName, order.getOrderAmount(), rank));
+            }
+            return result;
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<OrderAmountRank> orderRankInSql() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return new RollupReport(em).orderAmountRanks();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * SQL PERCENTILE_CONT 와 같은 선형 보간
+     */
+    private static double percentileCont(List<Integer> sorted, double fraction) {
+        double position = fraction * (sorted.size() - 1);
+        int lower = (int) Math.floor(position);
+        int upper = (int) Math.ceil(position);
+        return sorted.get(lower) + (position - lower) * (sorted.get(upper) - sorted.get(lower));
+    }
+
+    private static boolean sameDistribution(TeamAgeDistribution a, TeamAgeDistribution b) {
+        return a.getTeamName().equals(b.getTeamName())
+                && a.getMemberCount() == b.getMemberCount()
+                && a.getMinAge() == b.getMinAge()
+                && a.getMaxAge() == b.getMaxAge()
+                && near(a.getAverageAge(), b.getAverageAge())
+                && near(a.getP25(), b.getP25())
+                && near(a.getMedian(), b.getMedian())
+                && near(a.getP75(), b.getP75())
+                && near(a.getP90(), b.getP90());
+    }
+
+    private static boolean near(double a, double b) {
+        return Math.abs(a - b) < 1e-9;
+    }
+
+    private void verifySameResult() {
+        List<TeamAgeDistribution> expected = ageDistributionInJvm();
+        List<TeamAgeDistribution> actual = ageDistributionInSql();
+        if (expected.size() != actual.size()) {
+            throw new IllegalStateException("팀 수 불일치 : " + expected.size() + " / " + actual.size());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (!sameDistribution(expected.get(i), actual.get(i))) {
+                throw new IllegalStateException("나이 분포 불일치 : " + expected.get(i) + " / " + actual.get(i));
+            }
+        }
+
+        List<OrderAmountRank> expectedRanks = orderRankInJvm();
+        List<OrderAmountRank> actualRanks = orderRankInSql();
+        if (expectedRanks.size() != actualRanks.size()) {
+            throw new IllegalStateException("주문 수 불일치 : " + expectedRanks.size() + " / " + actualRanks.size());
+        }
+        for (int i = 0; i < expectedRanks.size(); i++) {
+            if (!expectedRanks.get(i).toString().equals(actualRanks.get(i).toString())) {
+                throw new IllegalStateException("순위 불일치 : " + expectedRanks.get(i) + " / " + actualRanks.get(i));
+            }
+        }
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            String names = new RollupReport(em).teamMemberNames(",").get("team0");
+            if (!names.startsWith("member0,member1,member2,")) {
+                throw new IllegalStateException("회원 이름 목록 불일치 : " + names.substring(0, 40));
+            }
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Member;
+import jpql.Product;
+import jpql.Team;
+import jpql.cache.CacheStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 자주 조회되는 팀/상품 조회 : 2차 캐시 사용 vs 미사용
+ * - 매 호출마다 새 EntityManager 로 조회하므로 1차 캐시는 효과가 없다.
+ * - 트라이얼이 끝나면 리전별 적중/미스 통계를 출력한다.
+ * - setUp : 회원의 팀을 바꾸면 캐시된 Team.members 가 이전 팀, 새 팀 모두 다시 조회되는지 확인한다.
+ *   (hibernate.cache.auto_evict_collection_cache)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecondLevelCacheBenchmark {
+
+    private static final int HOT_TEAMS = 10;
+
+    @Param({"true", "false"})
+    private boolean secondLevelCache;
+
+    private EntityManagerFactory emf;
+
+    private long[] teamIds;
+    private long[] productIds;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> overrides = new HashMap<>();
+        if (!secondLevelCache) {
+            InMemoryPersistence.disableCaching(overrides);
+        }
+        emf = InMemoryPersistence.create("hello", overrides);
+        JpqlFixtures.seedMembers(emf, HOT_TEAMS, 20);
+        JpqlFixtures.seedOrders(emf, HOT_TEAMS, 1);
+
+        EntityManager em = emf.createEntityManager();
+        teamIds = toArray(em.createQuery("select t.id from Team t", Long.class).getResultList());
+        productIds = toArray(em.createQuery("select p.id from Product p", Long.class).getResultList());
+        em.close();
+
+        verifyMembersEviction();
+    }
+
+    private void verifyMembersEviction() {
+        long from = teamIds[0];
+        long to = teamIds[1];
+        int fromSize = membersSize(from);
+        int toSize = membersSize(to);
+
+        moveFirstMember(from, to);
+        if (membersSize(from) != fromSize - 1 || membersSize(to) != toSize + 1) {
+            throw new IllegalStateException("검증 실패 : 팀 변경 후 Team.members 캐시가 갱신되지 않음");
+        }
+        moveFirstMember(to, from);
+    }
+
+    private void moveFirstMember(long from, long to) {
+        InMemoryPersistence.inTransaction(emf, em -> {
+            Member member = em.createQuery("select m from Member m where m.team.id = :teamId order by m.id desc",
+                            Member.class)
+                    .setParameter("teamId", from)
+                    .setMaxResults(1)
+                    .getSingleResult();
+            member.setTeam(em.getReference(Team.class, to));
+        });
+    }
+
+    private int membersSize(long teamId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(Team.class, teamId).getMembers().size();
+        } finally {
+            em.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (secondLevelCache) {
+            new CacheStatistics(emf).summary()
+                    .forEach((region, stats) -> System.out.println(region + " : " + stats));
+        }
+        emf.close();
+    }
+
+    @Benchmark
+    public Team findTeam() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(Team.class, teamIds[cursor++ % teamIds.length]);
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public int findTeamWithMembers() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(Team.class, teamIds[cursor++ % teamIds.length]).getMembers().size();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public Product findProduct() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(Product.class, productIds[cursor++ % productIds.length]);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,25 @@
+package jpql.benchmark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 시퀀스 조회 SQL(call next value for ...) 실행 횟수를 센다.
+ */
+public class SequenceCallCounter implements StatementInspector {
+
+    private static final AtomicLong CALLS = new AtomicLong();
+
+    public static long get() {
+        return CALLS.get();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (sql.contains("next value for")) {
+            CALLS.incrementAndGet();
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,87 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Member;
+import jpql.Team;
+import jpql.bulk.LoadReport;
+import jpql.bulk.MemberBulkLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 10k건 INSERT : pooled-lo vs 식별자마다 시퀀스 조회
+ * - none : 최적화 없음, INSERT 한 건마다 시퀀스를 조회한다. (기존 @GeneratedValue 기본 동작과 같은 비용)
+ * - pooled-lo : allocationSize(50)마다 한번만 시퀀스를 조회한다.
+ * - 트라이얼이 끝나면 10k건당 시퀀스 조회 횟수를 출력한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SequenceInsertBenchmark {
+
+    private static final int MEMBERS_PER_OP = 10_000;
+    private static final int MEMBERS_PER_TEAM = 100;
+
+    @Param({"pooled-lo", "none"})
+    private String optimizer;
+
+    private EntityManagerFactory emf;
+
+    private long sequenceCallsAtStart;
+    private long ops;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("hibernate.id.optimizer.pooled.preferred", optimizer);
+        overrides.put("hibernate.session_factory.statement_inspector", SequenceCallCounter.class.getName());
+        emf = InMemoryPersistence.create("hello", overrides);
+        sequenceCallsAtStart = SequenceCallCounter.get();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long calls = SequenceCallCounter.get() - sequenceCallsAtStart;
+        System.out.printf("%n[%s] sequence calls per %d inserts : %.1f%n",
+                optimizer, MEMBERS_PER_OP, calls / (double) ops);
+        emf.close();
+    }
+
+    @Benchmark
+    public LoadReport insert10k() {
+        List<Team> teams = new ArrayList<>();
+        for (int t = 0; t < MEMBERS_PER_OP / MEMBERS_PER_TEAM; t++) {
+            Team team = new Team();
+            team.setName("team" + t);
+            for (int i = 0; i < MEMBERS_PER_TEAM - 1; i++) {
+                Member member = new Member();
+                member.setUsername("member" + i);
+                member.changeTeam(team);
+            }
+            teams.add(team);
+        }
+        ops++;
+        return new MemberBulkLoader(emf).load(teams.iterator());
+    }
+}
@@ -0,0 +1,138 @@
+package jpql.benchmark;
+
+import benchmark.InMemoryPersistence;
+import jpql.Team;
+import jpql.paging.TeamMembersPager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 팀 + 회원 한 페이지 조회 : 메모리 페이징(컬렉션 페치 조인 + setMaxResults) vs 2단계 조회(TeamMembersPager)
+ * - 메모리 페이징 비교를 위해 fail_on_pagination_over_collection_fetch 를 끈 유닛도 함께 띄운다.
+ * - setUp 에서 확인하는 것
+ *   -> 기본 설정에서는 컬렉션 페치 조인 페이징이 예외로 막힌다.
+ *   -> 2단계 조회는 SQL 2번으로 페이지를 만들고, 결과가 메모리 페이징과 같다.
+ * - 힙 사용량은 -prof gc 의 gc.alloc.rate.norm 으로 비교한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TeamMembersPagingBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"1000"})
+    private int teamCount;
+
+    @Param({"100"})
+    private int membersPerTeam;
+
+    private EntityManagerFactory emf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("hibernate.query.fail_on_pagination_over_collection_fetch", "false");
+        emf = InMemoryPersistence.create("hello", overrides);
+        JpqlFixtures.seedMembers(emf, teamCount, membersPerTeam);
+
+        verifyFailFast();
+        verifyTwoPhase();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Team> inMemoryPaging() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return inMemoryPage(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<Team> twoPhase() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return new TeamMembersPager(em).page(1, PAGE_SIZE);
+        } finally {
+            em.close();
+        }
+    }
+
+    private List<Team> inMemoryPage(EntityManager em) {
+        return em.createQuery("select distinct t from Team t join fetch t.members order by t.id", Team.class)
+                .setFirstResult(PAGE_SIZE)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+    }
+
+    private void verifyFailFast() {
+        // 2차 캐시는 같은 JCache CacheManager 를 공유하므로 끄고 띄운다. (닫을 때 측정용 유닛의 캐시까지 닫힘)
+        Map<String, Object> overrides = new HashMap<>();
+        InMemoryPersistence.disableCaching(overrides);
+        EntityManagerFactory defaults = InMemoryPersistence.create("hello", overrides);
+        EntityManager em = defaults.createEntityManager();
+        try {
+            inMemoryPage(em);
+            throw new IllegalStateException("컬렉션 페치 조인 페이징이 예외 없이 실행됨");
+        } catch (PersistenceException e) {
+            // HibernateException(Fail on pagination over collection fetch) -> PersistenceException 으로 변환됨
+        } finally {
+            em.close();
+            defaults.close();
+        }
+    }
+
+    private void verifyTwoPhase() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        EntityManager em = emf.createEntityManager();
+        try {
+            statistics.clear();
+            List<Team> teams = new TeamMembersPager(em).page(1, PAGE_SIZE);
+            long statements = statistics.getPrepareStatementCount();
+            if (statements != 2) {
+                throw new IllegalStateException("2단계 조회 SQL 수 : " + statements);
+            }
+
+            List<Team> expected = inMemoryPaging();
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                Team actual = teams.get(i);
+                if (!actual.getId().equals(expected.get(i).getId()) || actual.getMembers().size() != membersPerTeam) {
+                    throw new IllegalStateException(i + " 번째 팀 불일치 : " + actual.getId());
+                }
+            }
+        } finally {
+            em.close();
+        }
+    }
+}
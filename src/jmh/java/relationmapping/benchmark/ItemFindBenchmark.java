@@ -0,0 +1,190 @@
+package relationmapping.benchmark;
+
+import benchmark.InMemoryPersistence;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import relationmapping.Book;
+import relationmapping.Item;
+import relationmapping.Movie;
+import relationmapping.routing.ItemRouter;
+import relationmapping.routing.ItemType;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * TABLE_PER_CLASS Item 다형성 조회 : UNION ALL vs 하위 타입 테이블 라우팅 (relationmapping.routing)
+ * - 앨범, 도서, 영화 테이블에 ROWS_PER_TYPE 개씩, 식별자는 ItemIdGenerator 와 같은 규칙(MARKER + 시퀀스 값 * 10 + 타입 코드)
+ * - routing : false 면 ItemRoutingIntegratorProvider 를 빼고 실행한다. (em.find(Item.class, id) 가 UNION ALL)
+ * - findItem : em.find(Item.class, id) / findAll : 식별자 BATCH 개 (false : from Item i where i.id in :ids, true : ItemRouter.findAll)
+ * - findSubtype : ItemRouter.find(id) -> em.find(Book.class, id) 처럼 하위 타입으로 직접 조회 (routing 과 관계없는 기준값)
+ * - setUp : 라우팅 여부에 따라 실행한 SQL 에 union 이 있는지, 두 방식의 조회 결과가 같은지 확인한다.
+ *   -> 타입 코드가 없는 식별자(영화 12, 끝자리가 도서 코드)도 em.find(Item.class, 12L) 로 찾는지 확인한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemFindBenchmark {
+
+    private static final int ROWS_PER_TYPE = 200_000;
+    private static final int BATCH = 100;
+
+    /**
+     * 실행한 마지막 SQL (검증용)
+     */
+    public static class LastSqlInspector implements StatementInspector {
+
+        private volatile String sql;
+
+        @Override
+        public String inspect(String sql) {
+            this.sql = sql;
+            return sql;
+        }
+    }
+
+    @Param({"false", "true"})
+    private boolean routing;
+
+    private EntityManagerFactory emf;
+    private final LastSqlInspector inspector = new LastSqlInspector();
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("hibernate.generate_statistics", "false");
+        overrides.put("hibernate.session_factory.statement_inspector", inspector);
+        if (!routing) {
+            overrides.put("hibernate.integrator_provider", (IntegratorProvider) Collections::<Integrator>emptyList);
+        }
+        emf = InMemoryPersistence.create("relationmapping", overrides);
+        InMemoryPersistence.inTransaction(emf, em -> {
+            em.createNativeQuery(seed("Album", ItemType.ALBUM, "artist", "'artist' || x")).executeUpdate();
+            em.createNativeQuery(seed("Book", ItemType.BOOK, "author, isbn", "'author' || x, 'isbn-' || x")).executeUpdate();
+            em.createNativeQuery(seed("Movie", ItemType.MOVIE, "director, actor", "'director' || x, 'actor' || x")).executeUpdate();
+        });
+        verify();
+    }
+
+    private static String seed(String table, ItemType type, String columns, String values) {
+        return "insert into " + table + " (id, name, price, " + columns + ")"
+                + " select " + ItemType.MARKER + " + x * " + ItemType.RADIX + " + " + type.getCode() + ", 'item' || x, mod(x * 7919, 100000), " + values
+                + " from system_range(1, " + ROWS_PER_TYPE + ")";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public Item findItem() {
+        long id = nextId();
+        return read(em -> em.find(Item.class, id));
+    }
+
+    @Benchmark
+    public Item findSubtype() {
+        long id = nextId();
+        return read(em -> new ItemRouter(em).find(id));
+    }
+
+    @Benchmark
+    public List<Item> findAll() {
+        List<Long> ids = nextIds();
+        return read(em -> routing
+                ? new ItemRouter(em).findAll(ids)
+                : em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                        .setParameter("ids", ids)
+                        .getResultList());
+    }
+
+    /**
+     * 타입을 돌아가면서, 시퀀스 값은 흩어지게
+     */
+    private long nextId() {
+        int n = invocation++;
+        ItemType type = ItemType.values()[n % ItemType.values().length];
+        return type.encode((long) n * 7919 % ROWS_PER_TYPE + 1);
+    }
+
+    private List<Long> nextIds() {
+        List<Long> ids = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            ids.add(nextId());
+        }
+        return ids;
+    }
+
+    private <T> T read(Function<EntityManager, T> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return work.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    private void verify() {
+        long bookId = ItemType.BOOK.encode(7);
+        Item item = read(em -> em.find(Item.class, bookId));
+        check("find 결과 " + item, item instanceof Book && "author7".equals(((Book) item).getAuthor()));
+        check("find SQL " + inspector.sql, inspector.sql.contains("union") != routing);
+
+        check("없는 식별자", read(em -> em.find(Item.class, ItemType.MOVIE.encode(ROWS_PER_TYPE + 1L))) == null);
+
+        InMemoryPersistence.inTransaction(emf, em -> em.createNativeQuery(
+                "insert into Movie (id, name, price, director, actor) values (12, 'plain', 0, 'director', 'actor')")
+                .executeUpdate());
+        Item plain = read(em -> em.find(Item.class, 12L));
+        check("타입 코드 없는 식별자 " + plain, plain instanceof Movie);
+        InMemoryPersistence.inTransaction(emf, em -> em.createNativeQuery("delete from Movie where id = 12").executeUpdate());
+
+        List<Long> ids = nextIds();
+        invocation = 0;
+        List<Long> found = new ArrayList<>();
+        for (Item each : findAll()) {
+            found.add(each.getId());
+        }
+        invocation = 0;
+        List<Long> expected = new ArrayList<>(ids);
+        Collections.sort(expected);
+        Collections.sort(found);
+        check("findAll " + found.size(), found.equals(expected));
+
+        List<Item> byName = read(em -> new ItemRouter(em).findByName("item7", Collections.singletonList(ItemType.BOOK)));
+        check("findByName", byName.size() == 1 && byName.get(0).getId() == bookId
+                && !inspector.sql.contains("union"));
+    }
+
+    private static void check(String name, boolean ok) {
+        if (!ok) {
+            throw new IllegalStateException("검증 실패 : " + name);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package relationmapping.benchmark;
+
+import benchmark.InMemoryPersistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import relationmapping.Item;
+import relationmapping.fetch.JoinedFetchPlanner;
+import relationmapping.fetch.RootCondition;
+import relationmapping.routing.ItemType;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 조인 전략(JOINED) Item 목록 조회 : 자식 테이블 전체 outer join vs JoinedFetchPlanner
+ * - relationmapping-joined 유닛 (relationmapping.Item 을 JOINED 로 매핑)
+ * - 상품 ITEM_COUNT 개 : 도서 40%, 앨범 30%, 영화 30%, 식별자는 ItemIdGenerator 규칙 (MARKER + 시퀀스 값 * 10 + 타입 코드)
+ * - 식별자 범위로 size 개를 조회한다. 호출마다 범위를 옮긴다.
+ *   -> polymorphic : select i from Item i where i.id between :from and :to order by i.id
+ *   -> planned : JoinedFetchPlanner.list(Item.class, RootCondition.between("id", from, to), "id")
+ * - setUp : 두 방식의 결과(식별자, 타입, 순서)가 같은지, 쿼리 수와 조인이 예상대로인지 확인한다.
+ *   -> findAll 에 식별자 타입(Long)이 아닌 숫자(BigInteger)를 넘겨도 같은 결과인지 확인한다.
+ *   -> polymorphic : 1번, 자식 테이블 3개 left outer join
+ *   -> planned : 부모 테이블만 1번 + 타입별 1번(3번), 타입별 조회는 자식 테이블 하나만 join 하고 IN 목록이 없다.
+ * - 결과 (1 CPU) : size 100 : polymorphic 0.82ms, planned 1.03ms / size 10000 : polymorphic 60ms, planned 45ms
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JoinedFetchBenchmark {
+
+    private static final int ITEM_COUNT = 500_000;
+
+    private static final String WHERE = "e.id between :from and :to";
+
+    /**
+     * 실행한 SQL (검증용)
+     */
+    public static class SqlCollector implements StatementInspector {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private EntityManagerFactory emf;
+    private Statistics statistics;
+    private final SqlCollector collector = new SqlCollector();
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("hibernate.session_factory.statement_inspector", collector);
+        emf = InMemoryPersistence.create("relationmapping-joined", overrides);
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        InMemoryPersistence.inTransaction(emf, em -> {
+            // x % 10 : 0 ~ 3 도서, 4 ~ 6 앨범, 7 ~ 9 영화
+            String type = "case when mod(x, 10) < 4 then " + ItemType.BOOK.getCode()
+                    + " when mod(x, 10) < 7 then " + ItemType.ALBUM.getCode() + " else " + ItemType.MOVIE.getCode() + " end";
+            em.createNativeQuery("insert into Item (DTYPE, id, name, price)"
+                    + " select case when mod(x, 10) < 4 then 'B' when mod(x, 10) < 7 then 'A' else 'M' end,"
+                    + " " + ItemType.MARKER + " + x * " + ItemType.RADIX + " + " + type + ", 'item' || x, mod(x * 7919, 100000)"
+                    + " from system_range(1, " + ITEM_COUNT + ")").executeUpdate();
+            em.createNativeQuery("insert into Book (id, author, isbn) select id, 'author' || id, 'isbn-' || id"
+                    + " from Item where DTYPE = 'B'").executeUpdate();
+            em.createNativeQuery("insert into Album (id, artist) select id, 'artist' || id"
+                    + " from Item where DTYPE = 'A'").executeUpdate();
+            em.createNativeQuery("insert into Movie (id, director, actor) select id, 'director' || id, 'actor' || id"
+                    + " from Item where DTYPE = 'M'").executeUpdate();
+        });
+        verify();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Item> polymorphic() {
+        Map<String, Object> range = nextRange();
+        return read(em -> em.createQuery("select e from Item e where " + WHERE + " order by e.id", Item.class)
+                .setParameter("from", range.get("from"))
+                .setParameter("to", range.get("to"))
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<Item> planned() {
+        Map<String, Object> range = nextRange();
+        return read(em -> new JoinedFetchPlanner(em)
+                .list(Item.class, RootCondition.between("id", range.get("from"), range.get("to")), "id"));
+    }
+
+    /**
+     * 시퀀스 값 size 개 구간 (식별자 범위)
+     */
+    private Map<String, Object> nextRange() {
+        long first = (long) invocation++ * size % (ITEM_COUNT - size) + 1;
+        Map<String, Object> range = new HashMap<>();
+        range.put("from", ItemType.MARKER + first * ItemType.RADIX);
+        range.put("to", ItemType.MARKER + (first + size) * ItemType.RADIX - 1);
+        return range;
+    }
+
+    private <T> T read(Function<EntityManager, T> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return work.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    private void verify() {
+        statistics.clear();
+        collector.statements.clear();
+        List<String> expected = describe(polymorphic());
+        invocation = 0;
+        check("polymorphic 쿼리 " + collector.statements, statistics.getPrepareStatementCount() == 1
+                && joins(collector.statements.get(0)) == 3);
+
+        statistics.clear();
+        collector.statements.clear();
+        List<String> planned = describe(planned());
+        invocation = 0;
+        check("결과 " + planned.size(), planned.size() == size && planned.equals(expected));
+
+        check("planned 쿼리 수 " + statistics.getPrepareStatementCount(), statistics.getPrepareStatementCount() == 1 + 3);
+        check("planned 부모 테이블 조회 " + collector.statements.get(0), joins(collector.statements.get(0)) == 0);
+        for (String sql : collector.statements.subList(1, collector.statements.size())) {
+            check("planned 타입별 조회 " + sql, joins(sql) == 1 && !sql.contains("outer join") && !sql.contains(" in ("));
+        }
+
+        List<BigInteger> ids = new ArrayList<>(expected.size());
+        for (String each : expected) {
+            ids.add(new BigInteger(each.substring(each.indexOf('#') + 1)));
+        }
+        List<String> found = describe(read(em -> new JoinedFetchPlanner(em).findAll(Item.class, ids)));
+        check("findAll " + found.size(), found.equals(expected));
+    }
+
+    private static int joins(String sql) {
+        return sql.split(" join ", -1).length - 1;
+    }
+
+    private static List<String> describe(List<Item> items) {
+        List<String> described = new ArrayList<>(items.size());
+        for (Item item : items) {
+            described.add(item.getClass().getSimpleName() + "#" + item.getId());
+        }
+        return described;
+    }
+
+    private static void check(String name, boolean ok) {
+        if (!ok) {
+            throw new IllegalStateException("검증 실패 : " + name);
+        }
+    }
+}
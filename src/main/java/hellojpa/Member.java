@@ -1,9 +1,11 @@
 package hellojpa;
 
+import org.hibernate.annotations.LazyGroup;
+
 import javax.persistence.*;
 import java.util.Date;
 
-//@Entity
+@Entity
 // 시퀀스 오브젝트 직접 생성
 @SequenceGenerator(name = "MEMBER_SEQ_GENERATOR",
         sequenceName = "MEMBER_SEQ",
@@ -13,6 +15,11 @@ import java.util.Date;
 //@TableGenerator(name = "MEMBER_SEQ_GENERATOR",
 //        table = "MY_SEQUENCES",
 //        pkColumnValue = "MEMBER_SEQ", allocationSize = 1)
+// 블록 할당 전략 : 키 테이블에서 1000개씩 예약하고 JVM 안에서는 락 없이 할당 (hellojpa.id.BlockIdGenerator 참고)
+//@GenericGenerator(name = "MEMBER_BLOCK_GENERATOR", strategy = "hellojpa.id.BlockIdGenerator",
+//        parameters = @Parameter(name = BlockIdGenerator.BLOCK_SIZE, value = "1000"))
+// Snowflake 전략 : 애플리케이션에서 시간 순서 식별자 생성, IDENTITY 와 달리 INSERT 배치 가능 (hellojpa.id.SnowflakeIdGenerator 참고)
+//@GenericGenerator(name = "MEMBER_SNOWFLAKE_GENERATOR", strategy = "hellojpa.id.SnowflakeIdGenerator")
 public class Member {
 
     /*
@@ -41,6 +48,8 @@ public class Member {
      */
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "MEMBER_SEQ_GENERATOR")
 //    @GeneratedValue(strategy = GenerationType.TABLE, generator = "MEMBER_SEQ_GENERATOR")
+//    @GeneratedValue(generator = "MEMBER_BLOCK_GENERATOR")
+//    @GeneratedValue(generator = "MEMBER_SNOWFLAKE_GENERATOR")
     private Long id;
 
     /*
@@ -81,8 +90,14 @@ public class Member {
     - 필드 타입이 문자면 CLOB 타입, 나머지는 BLOB 매핑
     - CLOB : String, char[], java.sql.CLOB
     - BLOB : byte[], java.sql.BLOB
+    - 지연 로딩 : @Basic(fetch = FetchType.LAZY) 는 바이트코드 향상(enableLazyInitialization)이 있어야 동작한다.
+      -> 회원 목록 조회 SQL 에서 description 컬럼이 빠지고, getDescription() 을 처음 호출할 때 따로 조회한다.
+      -> 지연 속성은 @LazyGroup 단위로 함께 로딩된다. (다른 지연 속성이 추가되어도 설명은 따로 로딩)
+      -> 큰 값을 한번에 String 으로 올리지 않으려면 MemberDescriptions 로 스트리밍한다.
      */
     @Lob // 데이터가 큰 경우 사용
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("description")
     private String description;
 
     /*
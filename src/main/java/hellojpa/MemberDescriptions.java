@@ -0,0 +1,107 @@
+package hellojpa;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * 회원 설명(CLOB) 스트리밍 읽기/쓰기
+ * - getDescription() 은 설명 전체를 String 으로 만든다. (1MB 설명이면 char[] 2MB)
+ * - JDBC Reader 로 버퍼 크기만큼씩 읽고 쓰므로 설명 크기와 관계없이 힙 사용량이 일정하다.
+ * - 테이블, 컬럼 이름은 Member 매핑 정보에서 가져온다.
+ *
+ * 주의
+ * - 영속성 컨텍스트를 거치지 않고 JDBC 로 직접 읽고 쓴다.
+ *   -> 읽기 전에 flush 해서 아직 반영되지 않은 변경을 DB에 보낸다.
+ *   -> 쓴 뒤에는 영속성 컨텍스트에 있는 해당 회원을 준영속 상태로 만든다. (이전 설명이 남지 않도록)
+ * - 트랜잭션 안에서 호출해야 한다.
+ */
+public class MemberDescriptions {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final SessionImplementor session;
+    private final AbstractEntityPersister persister;
+
+    public MemberDescriptions(EntityManager em) {
+        this.session = em.unwrap(SessionImplementor.class);
+        this.persister = (AbstractEntityPersister) session.getFactory().getMetamodel().entityPersister(Member.class);
+    }
+
+    /**
+     * 설명을 out 으로 복사한다.
+     *
+     * @return 복사한 문자 수, 회원이 없거나 설명이 null 이면 -1
+     */
+    public long copyDescription(Long memberId, Writer out) {
+        session.flush();
+        String sql = "select " + descriptionColumn() + " from " + persister.getTableName()
+                + " where " + persister.getIdentifierColumnNames()[0] + " = ?";
+
+        return session.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, memberId);
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (!rs.next()) {
+                        return -1L;
+                    }
+                    try (Reader reader = rs.getCharacterStream(1)) {
+                        return reader == null ? -1L : copy(reader, out);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 설명을 in 의 내용으로 바꾼다.
+     *
+     * @return 변경된 행 수 (회원이 없으면 0)
+     */
+    public int writeDescription(Long memberId, Reader in) {
+        session.flush();
+        String sql = "update " + persister.getTableName() + " set " + descriptionColumn() + " = ?"
+                + " where " + persister.getIdentifierColumnNames()[0] + " = ?";
+
+        int updated = session.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setCharacterStream(1, in);
+                statement.setLong(2, memberId);
+                return statement.executeUpdate();
+            }
+        });
+
+        EntityKey key = session.generateEntityKey(memberId, persister);
+        Object managed = session.getPersistenceContextInternal().getEntity(key);
+        if (managed != null) {
+            session.unwrap(Session.class).evict(managed);
+        }
+        return updated;
+    }
+
+    private String descriptionColumn() {
+        return persister.getPropertyColumnNames("description")[0];
+    }
+
+    private static long copy(Reader reader, Writer out) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,226 @@
+package hellojpa.id;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.ExportableProducer;
+import org.hibernate.boot.model.relational.SimpleAuxiliaryDatabaseObject;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.jdbc.AbstractReturningWork;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 블록 할당 식별자 생성기 (@TableGenerator(allocationSize = 1) 대안)
+ * - allocationSize = 1 인 테이블 전략은 INSERT 마다 키 테이블의 같은 행을 UPDATE 하므로 모든 INSERT 가 그 행 락에서 줄을 선다.
+ * - JVM 마다 block_size 개의 식별자 블록을 DB에서 한번에 예약하고, 블록 안의 값은 AtomicLong 으로 락 없이 나눠준다.
+ *   -> DB 접근은 block_size 번에 1번, 블록이 떨어졌을 때 한 스레드만 다음 블록을 예약한다.
+ * - 예약은 현재 트랜잭션과 분리된 별도 커넥션/트랜잭션에서 바로 커밋한다. (키 테이블 행 락을 짧게 유지)
+ *
+ * 여러 노드(JVM)가 한 DB를 공유해도 안전한 이유
+ * - 테이블 : update ... set next_val = next_val + block_size 후 같은 트랜잭션에서 읽으므로
+ *   행 락이 풀리기 전까지 다른 노드는 같은 구간을 받을 수 없다.
+ * - 시퀀스 : increment by block_size 인 시퀀스의 다음 값을 블록 시작값으로 사용한다.
+ * - 노드마다 다른 블록을 쓰므로 식별자는 유일하지만 노드 간 식별자 순서(INSERT 순서)는 보장하지 않는다.
+ * - 재시작하면 쓰지 않은 블록의 나머지 값은 버려진다. (식별자에 빈 구간이 생김)
+ *
+ * 사용법
+ *   @GenericGenerator(name = "MEMBER_BLOCK_GENERATOR", strategy = "hellojpa.id.BlockIdGenerator",
+ *           parameters = @Parameter(name = BlockIdGenerator.BLOCK_SIZE, value = "1000"))
+ *   @GeneratedValue(generator = "MEMBER_BLOCK_GENERATOR")
+ *
+ * 파라미터
+ * - table : 키 테이블 이름 (기본 ID_BLOCKS), segment_value : 키 테이블의 행 이름 (기본 엔티티 테이블 이름)
+ * - sequence_name : 지정하면 키 테이블 대신 시퀀스에서 블록을 예약한다.
+ * - block_size : 한번에 예약할 식별자 수 (기본 1000), initial_value : 첫 식별자 (기본 1)
+ * - 키 테이블/시퀀스는 스키마 자동 생성(hbm2ddl) 시 함께 만들어진다.
+ */
+public class BlockIdGenerator implements IdentifierGenerator, Configurable, ExportableProducer {
+
+    public static final String TABLE = "table";
+    public static final String SEGMENT_VALUE = "segment_value";
+    public static final String SEQUENCE_NAME = "sequence_name";
+    public static final String BLOCK_SIZE = "block_size";
+    public static final String INITIAL_VALUE = "initial_value";
+
+    public static final String DEFAULT_TABLE = "ID_BLOCKS";
+    public static final int DEFAULT_BLOCK_SIZE = 1_000;
+
+    private static final String SEGMENT_COLUMN = "sequence_name";
+    private static final String VALUE_COLUMN = "next_val";
+
+    /**
+     * 아직 예약한 블록이 없는 상태
+     */
+    private static final Block EMPTY = new Block(0, 0);
+
+    private final AtomicReference<Block> current = new AtomicReference<>(EMPTY);
+    private final Object allocationLock = new Object();
+
+    private Dialect dialect;
+    private Class<?> identifierType;
+    private String tableName;
+    private String segmentValue;
+    private String sequenceName;
+    private int blockSize;
+    private long initialValue;
+
+    private String updateSql;
+    private String selectSql;
+    private String insertSql;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        dialect = serviceRegistry.getService(JdbcEnvironment.class).getDialect();
+        identifierType = type.getReturnedClass();
+        if (identifierType != Long.class && identifierType != Integer.class) {
+            throw new MappingException("BlockIdGenerator 는 Long, Integer 식별자만 지원합니다 : " + identifierType);
+        }
+
+        tableName = ConfigurationHelper.getString(TABLE, params, DEFAULT_TABLE);
+        segmentValue = ConfigurationHelper.getString(SEGMENT_VALUE, params,
+                params.getProperty(PersistentIdentifierGenerator.TABLE));
+        sequenceName = params.getProperty(SEQUENCE_NAME);
+        blockSize = ConfigurationHelper.getInt(BLOCK_SIZE, params, DEFAULT_BLOCK_SIZE);
+        initialValue = ConfigurationHelper.getLong(INITIAL_VALUE, params, 1);
+        if (blockSize < 1) {
+            throw new MappingException("block_size 는 1 이상이어야 합니다 : " + blockSize);
+        }
+
+        updateSql = "update " + tableName + " set " + VALUE_COLUMN + " = " + VALUE_COLUMN + " + ?"
+                + " where " + SEGMENT_COLUMN + " = ?";
+        selectSql = "select " + VALUE_COLUMN + " from " + tableName + " where " + SEGMENT_COLUMN + " = ?";
+        insertSql = "insert into " + tableName + " (" + SEGMENT_COLUMN + ", " + VALUE_COLUMN + ") values (?, ?)";
+    }
+
+    @Override
+    public void registerExportables(Database database) {
+        String[] create;
+        String[] drop;
+        String exportIdentifier;
+        if (sequenceName != null) {
+            create = dialect.getCreateSequenceStrings(sequenceName, (int) initialValue, blockSize);
+            drop = dialect.getDropSequenceStrings(sequenceName);
+            exportIdentifier = "block-id-sequence:" + sequenceName;
+        } else {
+            create = new String[]{dialect.getCreateTableString() + " " + tableName + " ("
+                    + SEGMENT_COLUMN + " " + dialect.getTypeName(Types.VARCHAR, 255, 0, 0) + " not null, "
+                    + VALUE_COLUMN + " " + dialect.getTypeName(Types.BIGINT) + " not null, "
+                    + "primary key (" + SEGMENT_COLUMN + "))"};
+            drop = new String[]{dialect.getDropTableString(tableName)};
+            exportIdentifier = "block-id-table:" + tableName;
+        }
+
+        // 같은 키 테이블을 여러 엔티티가 함께 쓰면 한번만 생성한다.
+        database.addAuxiliaryDatabaseObject(new SimpleAuxiliaryDatabaseObject(
+                database.getDefaultNamespace(), create, drop, Collections.emptySet()) {
+            @Override
+            public String getExportIdentifier() {
+                return exportIdentifier;
+            }
+        });
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        while (true) {
+            Block block = current.get();
+            long value = block.next.getAndIncrement();
+            if (value < block.end) {
+                return identifierType == Long.class ? (Serializable) value : (Serializable) Math.toIntExact(value);
+            }
+            synchronized (allocationLock) {
+                // 기다리는 동안 다른 스레드가 이미 새 블록을 예약했으면 그 블록을 사용한다.
+                if (current.get() == block) {
+                    current.set(allocate(session));
+                }
+            }
+        }
+    }
+
+    private Block allocate(SharedSessionContractImplementor session) {
+        long start = session.getTransactionCoordinator().createIsolationDelegate().delegateWork(
+                new AbstractReturningWork<Long>() {
+                    @Override
+                    public Long execute(Connection connection) throws SQLException {
+                        return sequenceName != null ? nextFromSequence(connection) : nextFromTable(connection);
+                    }
+                }, true);
+        return new Block(start, start + blockSize);
+    }
+
+    private long nextFromSequence(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(dialect.getSequenceNextValString(sequenceName))) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * @return 예약한 블록의 시작값, 키 테이블에는 다음 블록의 시작값이 남는다.
+     */
+    private long nextFromTable(Connection connection) throws SQLException {
+        while (true) {
+            try (PreparedStatement update = connection.prepareStatement(updateSql)) {
+                update.setLong(1, blockSize);
+                update.setString(2, segmentValue);
+                if (update.executeUpdate() == 1) {
+                    try (PreparedStatement select = connection.prepareStatement(selectSql)) {
+                        select.setString(1, segmentValue);
+                        try (ResultSet rs = select.executeQuery()) {
+                            rs.next();
+                            return rs.getLong(1) - blockSize;
+                        }
+                    }
+                }
+            }
+            // 첫 예약 : 다른 노드가 먼저 행을 만들었으면 INSERT 가 실패하므로 UPDATE 부터 다시 시도한다.
+            try (PreparedStatement insert = connection.prepareStatement(insertSql)) {
+                insert.setString(1, segmentValue);
+                insert.setLong(2, initialValue + blockSize);
+                insert.executeUpdate();
+                return initialValue;
+            } catch (SQLException e) {
+                if (isDuplicateKey(e)) {
+                    continue;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static boolean isDuplicateKey(SQLException e) {
+        // SQLState 23xxx : 무결성 제약 조건 위반
+        return e.getSQLState() != null && e.getSQLState().startsWith("23");
+    }
+
+    private static class Block {
+
+        private final AtomicLong next;
+        private final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -16,6 +16,15 @@ public class Address {
     @Column(length = 5)
     private String zipcode; // 우편변호
 
+    public Address() {
+    }
+
+    public Address(String city, String street, String zipcode) {
+        this.city = city;
+        this.street = street;
+        this.zipcode = zipcode;
+    }
+
     public String fullAddress() {
         return getCity() + " " + getStreet() + " " + getZipcode();
     }
@@ -2,7 +2,7 @@ package jpabook.jpashop.domain;
 
 import javax.persistence.Entity;
 
-//@Entity
+@Entity
 public class Album extends Item {
 
     private String artist;
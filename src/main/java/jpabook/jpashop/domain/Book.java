@@ -2,7 +2,7 @@ package jpabook.jpashop.domain;
 
 import javax.persistence.Entity;
 
-//@Entity
+@Entity
 public class Book extends Item {
 
     private String author;
@@ -6,12 +6,16 @@ import java.util.List;
 
 import static javax.persistence.FetchType.*;
 
-//@Entity
+@Entity
+@SequenceGenerator(name = "CATEGORY_SEQ_GENERATOR",
+        sequenceName = "CATEGORY_SEQ",
+        initialValue = 1,
+        allocationSize = 50)
 public class Category extends BaseEntity {
 
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "CATEGORY_SEQ_GENERATOR")
     private Long id;
 
     private String name;
@@ -23,10 +27,47 @@ public class Category extends BaseEntity {
     @OneToMany(mappedBy = "parent")
     private List<Category> child = new ArrayList<>();
 
-    @ManyToMany
-    @JoinTable(name = "CATEGORY_ITEM",
-            joinColumns = @JoinColumn(name = "CATEGORY_ID"),
-            inverseJoinColumns = @JoinColumn(name = "ITEM_ID")
-    )
-    private List<Item> items = new ArrayList<>();
+    /**
+     * 카테고리-상품 연결 : @ManyToMany 대신 연결 엔티티(CategoryItem) 사용
+     * - 연결 추가/삭제는 CategoryItems 로 한다. (이 컬렉션은 조회용)
+     */
+    @OneToMany(mappedBy = "category")
+    private List<CategoryItem> categoryItems = new ArrayList<>();
+
+    public void addChild(Category child) {
+        this.child.add(child);
+        child.setParent(this);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Category getParent() {
+        return parent;
+    }
+
+    public void setParent(Category parent) {
+        this.parent = parent;
+    }
+
+    public List<Category> getChild() {
+        return child;
+    }
+
+    public List<CategoryItem> getCategoryItems() {
+        return categoryItems;
+    }
 }
@@ -0,0 +1,53 @@
+package jpabook.jpashop.domain;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+
+import static javax.persistence.FetchType.LAZY;
+
+/**
+ * 카테고리 클로저 테이블 : (조상, 자손, 거리) 를 모든 조상-자손 쌍에 대해 저장한다.
+ * - 자기 자신도 거리 0 으로 저장한다.
+ * - 하위 트리 전체 = where ANCESTOR_ID = ? 한 번 (단계마다 쿼리하지 않음)
+ * - 조상 목록(경로) = where DESCENDANT_ID = ?
+ * - 행은 CategoryTree 가 SQL 로 관리하므로 엔티티로는 읽기만 한다.
+ */
+@Entity
+@Immutable
+@Table(name = "CATEGORY_CLOSURE", indexes = {
+        @Index(name = "IDX_CATEGORY_CLOSURE_DESCENDANT", columnList = "DESCENDANT_ID, DEPTH")
+})
+public class CategoryClosure {
+
+    @EmbeddedId
+    private CategoryClosureId id;
+
+    @MapsId("ancestorId")
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "ANCESTOR_ID")
+    private Category ancestor;
+
+    @MapsId("descendantId")
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "DESCENDANT_ID")
+    private Category descendant;
+
+    private int depth;
+
+    public CategoryClosureId getId() {
+        return id;
+    }
+
+    public Category getAncestor() {
+        return ancestor;
+    }
+
+    public Category getDescendant() {
+        return descendant;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -0,0 +1,56 @@
+package jpabook.jpashop.domain;
+
+import javax.persistence.*;
+
+import static javax.persistence.FetchType.LAZY;
+
+/**
+ * 카테고리-상품 연결 엔티티 (CATEGORY_ITEM)
+ * - @ManyToMany(List) 컬렉션은 행을 식별할 수 없어서 하나만 추가해도 연결 행을 모두 지우고 다시 넣는다.
+ * - 연결 행을 엔티티로 만들면 추가는 INSERT 1번, 삭제는 DELETE 1번이다.
+ * - 기본 키 (CATEGORY_ID, ITEM_ID) : 카테고리 -> 상품 조회, 중복 연결 방지
+ * - 인덱스 (ITEM_ID, CATEGORY_ID) : 상품 -> 카테고리 조회
+ */
+@Entity
+@Table(name = "CATEGORY_ITEM", indexes = {
+        @Index(name = "IDX_CATEGORY_ITEM_ITEM", columnList = "ITEM_ID, CATEGORY_ID")
+})
+public class CategoryItem {
+
+    @EmbeddedId
+    private CategoryItemId id;
+
+    @MapsId("categoryId")
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "CATEGORY_ID")
+    private Category category;
+
+    @MapsId("itemId")
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "ITEM_ID")
+    private Item item;
+
+    protected CategoryItem() {
+    }
+
+    /**
+     * 식별자는 저장 시점에 @MapsId 로 category, item 의 식별자에서 채워진다.
+     */
+    public CategoryItem(Category category, Item item) {
+        this.id = new CategoryItemId();
+        this.category = category;
+        this.item = item;
+    }
+
+    public CategoryItemId getId() {
+        return id;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public Item getItem() {
+        return item;
+    }
+}
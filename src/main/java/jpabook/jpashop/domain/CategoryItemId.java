@@ -0,0 +1,45 @@
+package jpabook.jpashop.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class CategoryItemId implements Serializable {
+
+    @Column(name = "CATEGORY_ID")
+    private Long categoryId;
+
+    @Column(name = "ITEM_ID")
+    private Long itemId;
+
+    public CategoryItemId() {
+    }
+
+    public CategoryItemId(Long categoryId, Long itemId) {
+        this.categoryId = categoryId;
+        this.itemId = itemId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CategoryItemId that = (CategoryItemId) o;
+        return Objects.equals(categoryId, that.categoryId) && Objects.equals(itemId, that.itemId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(categoryId, itemId);
+    }
+}
@@ -4,11 +4,15 @@ import javax.persistence.*;
 
 import static javax.persistence.FetchType.*;
 
-//@Entity
+@Entity
+@SequenceGenerator(name = "DELIVERY_SEQ_GENERATOR",
+        sequenceName = "DELIVERY_SEQ",
+        initialValue = 1,
+        allocationSize = 50)
 public class Delivery extends BaseEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "DELIVERY_SEQ_GENERATOR")
     private Long id;
 
     @Embedded
@@ -0,0 +1,11 @@
+package jpabook.jpashop.domain;
+
+/**
+ * 주문 수량보다 재고가 적을 때
+ */
+public class NotEnoughStockException extends RuntimeException {
+
+    public NotEnoughStockException(String message) {
+        super(message);
+    }
+}
@@ -8,12 +8,16 @@ import java.util.List;
 import static javax.persistence.CascadeType.ALL;
 import static javax.persistence.FetchType.LAZY;
 
-//@Entity
+@Entity
 @Table(name = "ORDERS")
+@SequenceGenerator(name = "ORDERS_SEQ_GENERATOR",
+        sequenceName = "ORDERS_SEQ",
+        initialValue = 1,
+        allocationSize = 50)
 public class Order extends BaseEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ORDERS_SEQ_GENERATOR")
     @Column(name = "ORDER_ID")
     private Long id;
 
@@ -38,6 +42,11 @@ public class Order extends BaseEntity {
         orderItem.setOrder(this);
     }
 
+    public void setDelivery(Delivery delivery) {
+        this.delivery = delivery;
+        delivery.setOrder(this);
+    }
+
     public Long getId() {
         return id;
     }
@@ -54,6 +63,14 @@ public class Order extends BaseEntity {
         this.member = member;
     }
 
+    public Delivery getDelivery() {
+        return delivery;
+    }
+
+    public List<OrderItem> getOrderItems() {
+        return orderItems;
+    }
+
     public LocalDateTime getOrderDate() {
         return orderDate;
     }
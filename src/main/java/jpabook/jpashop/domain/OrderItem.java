@@ -4,11 +4,15 @@ import javax.persistence.*;
 
 import static javax.persistence.FetchType.LAZY;
 
-//@Entity
+@Entity
+@SequenceGenerator(name = "ORDER_ITEM_SEQ_GENERATOR",
+        sequenceName = "ORDER_ITEM_SEQ",
+        initialValue = 1,
+        allocationSize = 50)
 public class OrderItem {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ORDER_ITEM_SEQ_GENERATOR")
     @Column(name = "ORDER_ITEM_ID")
     private Long id;
 
@@ -0,0 +1,26 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Album;
+
+/**
+ * 앨범 목록 조회 결과 (ItemCatalog) : 공통 컬럼 + 앨범 컬럼만
+ */
+public class AlbumSummary extends ItemSummary {
+
+    private final String artist;
+    private final String etc;
+
+    public AlbumSummary(Long id, String name, int price, String artist, String etc) {
+        super(id, Album.class, name, price);
+        this.artist = artist;
+        this.etc = etc;
+    }
+
+    public String getArtist() {
+        return artist;
+    }
+
+    public String getEtc() {
+        return etc;
+    }
+}
@@ -0,0 +1,26 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Book;
+
+/**
+ * 도서 목록 조회 결과 (ItemCatalog) : 공통 컬럼 + 도서 컬럼만
+ */
+public class BookSummary extends ItemSummary {
+
+    private final String author;
+    private final String isbn;
+
+    public BookSummary(Long id, String name, int price, String author, String isbn) {
+        super(id, Book.class, name, price);
+        this.author = author;
+        this.isbn = isbn;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+}
@@ -0,0 +1,133 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.CategoryItem;
+import jpabook.jpashop.domain.Item;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 카테고리-상품 연결 추가/삭제 (CATEGORY_ITEM)
+ * - Category, Item 을 조회하지 않고 getReference 로 연결 엔티티만 저장한다.
+ *   -> link : INSERT 1번 (이미 연결되어 있으면 flush 시점에 기본 키 위반)
+ *   -> unlink : DELETE 1번
+ * - linkAll : 이미 연결된 상품을 IN 조회로 걸러내고 나머지만 저장한다.
+ *   -> hibernate.jdbc.batch_size 건마다 flush 해서 JDBC 배치로 나가고, 저장한 연결 엔티티는 detach 한다.
+ * - unlinkAll, move : 상품 식별자 IN 조건의 벌크 DELETE (1,000 개씩)
+ *
+ * 참고
+ * - 벌크 DELETE 는 영속성 컨텍스트를 거치지 않으므로 이미 로딩된 Category.categoryItems, Item.categoryItems 컬렉션은
+ *   이전 상태 그대로다. 다시 읽어야 하면 em.refresh() 하거나 새 영속성 컨텍스트에서 조회한다.
+ * - 트랜잭션 안에서 호출해야 한다.
+ */
+public class CategoryItems {
+
+    private static final int IN_CLAUSE_SIZE = 1_000;
+
+    private final EntityManager em;
+    private final int flushSize;
+
+    public CategoryItems(EntityManager em) {
+        this.em = em;
+        this.flushSize = jdbcBatchSize(em);
+    }
+
+    public CategoryItem link(Long categoryId, Long itemId) {
+        CategoryItem categoryItem = new CategoryItem(
+                em.getReference(Category.class, categoryId),
+                em.getReference(Item.class, itemId));
+        em.persist(categoryItem);
+        return categoryItem;
+    }
+
+    /**
+     * @return 새로 연결된 상품 수
+     */
+    public int linkAll(Long categoryId, Collection<Long> itemIds) {
+        Set<Long> toLink = new LinkedHashSet<>(itemIds);
+        toLink.removeAll(findLinkedItemIds(categoryId, toLink));
+
+        Category category = em.getReference(Category.class, categoryId);
+        List<CategoryItem> unflushed = new ArrayList<>(flushSize);
+        for (Long itemId : toLink) {
+            CategoryItem categoryItem = new CategoryItem(category, em.getReference(Item.class, itemId));
+            em.persist(categoryItem);
+            unflushed.add(categoryItem);
+            if (unflushed.size() == flushSize) {
+                flushAndDetach(unflushed);
+            }
+        }
+        flushAndDetach(unflushed);
+        return toLink.size();
+    }
+
+    public boolean unlink(Long categoryId, Long itemId) {
+        return em.createQuery("delete from CategoryItem ci"
+                        + " where ci.category.id = :categoryId and ci.item.id = :itemId")
+                .setParameter("categoryId", categoryId)
+                .setParameter("itemId", itemId)
+                .executeUpdate() > 0;
+    }
+
+    /**
+     * @return 삭제된 연결 수
+     */
+    public int unlinkAll(Long categoryId, Collection<Long> itemIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(itemIds));
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_SIZE) {
+            deleted += em.createQuery("delete from CategoryItem ci"
+                            + " where ci.category.id = :categoryId and ci.item.id in :itemIds")
+                    .setParameter("categoryId", categoryId)
+                    .setParameter("itemIds", ids.subList(from, Math.min(from + IN_CLAUSE_SIZE, ids.size())))
+                    .executeUpdate();
+        }
+        return deleted;
+    }
+
+    /**
+     * 상품들을 from 카테고리에서 to 카테고리로 옮긴다. (일괄 재분류)
+     * - from 에 연결되어 있지 않던 상품도 to 에는 연결된다.
+     *
+     * @return to 카테고리에 새로 연결된 상품 수
+     */
+    public int move(Collection<Long> itemIds, Long fromCategoryId, Long toCategoryId) {
+        unlinkAll(fromCategoryId, itemIds);
+        return linkAll(toCategoryId, itemIds);
+    }
+
+    private Set<Long> findLinkedItemIds(Long categoryId, Set<Long> itemIds) {
+        List<Long> ids = new ArrayList<>(itemIds);
+        Set<Long> linked = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_SIZE) {
+            linked.addAll(em.createQuery("select ci.item.id from CategoryItem ci"
+                            + " where ci.category.id = :categoryId and ci.item.id in :itemIds", Long.class)
+                    .setParameter("categoryId", categoryId)
+                    .setParameter("itemIds", ids.subList(from, Math.min(from + IN_CLAUSE_SIZE, ids.size())))
+                    .getResultList());
+        }
+        return linked;
+    }
+
+    private void flushAndDetach(List<CategoryItem> unflushed) {
+        if (unflushed.isEmpty()) {
+            return;
+        }
+        em.flush();
+        for (CategoryItem categoryItem : unflushed) {
+            em.detach(categoryItem);
+        }
+        unflushed.clear();
+    }
+
+    private static int jdbcBatchSize(EntityManager em) {
+        Object batchSize = em.getEntityManagerFactory().getProperties().get("hibernate.jdbc.batch_size");
+        return batchSize == null ? 1 : Math.max(1, Integer.parseInt(batchSize.toString().trim()));
+    }
+}
@@ -0,0 +1,63 @@
+package jpabook.jpashop.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 하위 트리 조회 결과 (CategoryTree.loadTree)
+ * - 엔티티의 child 컬렉션을 건드리지 않고 클로저 테이블 조회 결과로 만든 읽기 전용 트리
+ */
+public class CategoryNode {
+
+    private final Long id;
+    private final Long parentId;
+    private final String name;
+    private final int depth;
+    private final List<CategoryNode> children = new ArrayList<>();
+
+    public CategoryNode(Long id, Long parentId, String name, int depth) {
+        this.id = id;
+        this.parentId = parentId;
+        this.name = name;
+        this.depth = depth;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 조회한 루트로부터의 거리 (루트 = 0)
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public List<CategoryNode> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    void addChild(CategoryNode child) {
+        children.add(child);
+    }
+
+    /**
+     * @return 자기 자신을 포함한 하위 트리의 노드 수
+     */
+    public int size() {
+        int size = 1;
+        for (CategoryNode child : children) {
+            size += child.size();
+        }
+        return size;
+    }
+}
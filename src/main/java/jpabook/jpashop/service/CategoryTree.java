@@ -0,0 +1,201 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.CategoryClosure;
+import jpabook.jpashop.domain.Item;
+import org.hibernate.query.NativeQuery;
+
+import javax.persistence.EntityManager;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 카테고리 트리 (인접 목록 Category.parent + 클로저 테이블 CATEGORY_CLOSURE)
+ * - 인접 목록만으로 하위 트리를 읽으면 단계(또는 부모 batch_fetch_size 개)마다 쿼리가 나간다.
+ * - 클로저 테이블에 모든 조상-자손 쌍을 저장해두고 하위 트리, 하위 트리의 상품을 쿼리 한 번으로 읽는다.
+ *
+ * 동기화
+ * - create : 새 노드의 클로저 행 = 자기 자신(거리 0) + 부모의 조상들(거리 + 1), INSERT ... SELECT 1번
+ * - move : 옮길 하위 트리와 기존 조상 사이의 행을 지우고, 새 부모의 조상들 x 하위 트리 노드 행을 INSERT ... SELECT 1번
+ *   -> 자기 하위 트리 아래로는 옮길 수 없다. (IllegalArgumentException)
+ * - rebuild : 인접 목록에서 클로저 테이블 전체를 다시 만든다. (기존 데이터 이관, 일괄 적재 후 사용)
+ *   -> 거리 0 행을 넣고, 거리 d 행에서 자식으로 한 단계씩 내려가며 거리 d + 1 행을 만든다. (트리 깊이만큼 INSERT ... SELECT)
+ * - Category.parent 를 직접 바꾸거나 CategoryTree 를 거치지 않고 저장하면 클로저 테이블과 어긋나므로 rebuild 해야 한다.
+ * - 트랜잭션 안에서 호출해야 한다.
+ */
+public class CategoryTree {
+
+    private static final String INSERT_SELF =
+            "insert into CATEGORY_CLOSURE (ANCESTOR_ID, DESCENDANT_ID, DEPTH) values (:id, :id, 0)";
+
+    private static final String INSERT_ANCESTORS =
+            "insert into CATEGORY_CLOSURE (ANCESTOR_ID, DESCENDANT_ID, DEPTH)"
+                    + " select ANCESTOR_ID, :id, DEPTH + 1 from CATEGORY_CLOSURE where DESCENDANT_ID = :parentId";
+
+    private static final String DELETE_OUTER_PATHS =
+            "delete from CATEGORY_CLOSURE"
+                    + " where DESCENDANT_ID in (select DESCENDANT_ID from CATEGORY_CLOSURE where ANCESTOR_ID = :id)"
+                    + " and ANCESTOR_ID not in (select DESCENDANT_ID from CATEGORY_CLOSURE where ANCESTOR_ID = :id)";
+
+    private static final String INSERT_OUTER_PATHS =
+            "insert into CATEGORY_CLOSURE (ANCESTOR_ID, DESCENDANT_ID, DEPTH)"
+                    + " select up.ANCESTOR_ID, down.DESCENDANT_ID, up.DEPTH + down.DEPTH + 1"
+                    + " from CATEGORY_CLOSURE up cross join CATEGORY_CLOSURE down"
+                    + " where up.DESCENDANT_ID = :parentId and down.ANCESTOR_ID = :id";
+
+    private static final String REBUILD_SELF =
+            "insert into CATEGORY_CLOSURE (ANCESTOR_ID, DESCENDANT_ID, DEPTH) select id, id, 0 from Category";
+
+    private static final String REBUILD_NEXT_DEPTH =
+            "insert into CATEGORY_CLOSURE (ANCESTOR_ID, DESCENDANT_ID, DEPTH)"
+                    + " select cc.ANCESTOR_ID, c.id, cc.DEPTH + 1"
+                    + " from CATEGORY_CLOSURE cc join Category c on c.PARENT_ID = cc.DESCENDANT_ID"
+                    + " where cc.DEPTH = :depth";
+
+    private final EntityManager em;
+
+    public CategoryTree(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * @param parent null 이면 루트 카테고리
+     */
+    public Category create(String name, Category parent) {
+        Category category = new Category();
+        category.setName(name);
+        if (parent != null) {
+            parent.addChild(category);
+        }
+        em.persist(category);
+        em.flush();
+
+        closureUpdate(INSERT_SELF)
+                .setParameter("id", category.getId())
+                .executeUpdate();
+        if (parent != null) {
+            closureUpdate(INSERT_ANCESTORS)
+                    .setParameter("id", category.getId())
+                    .setParameter("parentId", parent.getId())
+                    .executeUpdate();
+        }
+        return category;
+    }
+
+    /**
+     * @param newParent null 이면 루트로 옮긴다.
+     */
+    public void move(Category category, Category newParent) {
+        if (newParent != null && isAncestor(category.getId(), newParent.getId())) {
+            throw new IllegalArgumentException("자기 하위 트리 아래로 옮길 수 없습니다 : "
+                    + category.getId() + " -> " + newParent.getId());
+        }
+        Category oldParent = category.getParent();
+        if (oldParent != null) {
+            oldParent.getChild().remove(category);
+        }
+        if (newParent != null) {
+            newParent.addChild(category);
+        } else {
+            category.setParent(null);
+        }
+        em.flush();
+
+        closureUpdate(DELETE_OUTER_PATHS)
+                .setParameter("id", category.getId())
+                .executeUpdate();
+        if (newParent != null) {
+            closureUpdate(INSERT_OUTER_PATHS)
+                    .setParameter("id", category.getId())
+                    .setParameter("parentId", newParent.getId())
+                    .executeUpdate();
+        }
+    }
+
+    /**
+     * 클로저 테이블을 바꾸는 SQL : 자동 flush, 캐시 무효화 대상을 Category, CategoryClosure 로 한정한다.
+     */
+    @SuppressWarnings("unchecked")
+    private NativeQuery<?> closureUpdate(String sql) {
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Category.class)
+                .addSynchronizedEntityClass(CategoryClosure.class);
+    }
+
+    /**
+     * @return 만든 클로저 행 수
+     */
+    public int rebuild() {
+        em.flush();
+        closureUpdate("delete from CATEGORY_CLOSURE").executeUpdate();
+
+        int total = closureUpdate(REBUILD_SELF).executeUpdate();
+        for (int depth = 0; ; depth++) {
+            int inserted = closureUpdate(REBUILD_NEXT_DEPTH)
+                    .setParameter("depth", depth)
+                    .executeUpdate();
+            if (inserted == 0) {
+                return total;
+            }
+            total += inserted;
+        }
+    }
+
+    public boolean isAncestor(Long ancestorId, Long descendantId) {
+        return !em.createQuery("select cc.depth from CategoryClosure cc"
+                        + " where cc.ancestor.id = :ancestorId and cc.descendant.id = :descendantId", Integer.class)
+                .setParameter("ancestorId", ancestorId)
+                .setParameter("descendantId", descendantId)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * 하위 트리의 카테고리(자기 자신 포함)를 루트에서 가까운 순서로 조회한다. (쿼리 1번)
+     */
+    public List<Category> findSubtree(Long rootId) {
+        return em.createQuery("select c from CategoryClosure cc join cc.descendant c"
+                        + " where cc.ancestor.id = :rootId order by cc.depth, c.id", Category.class)
+                .setParameter("rootId", rootId)
+                .getResultList();
+    }
+
+    /**
+     * 하위 트리를 CategoryNode 트리로 조회한다. (쿼리 1번, 엔티티를 만들지 않음)
+     *
+     * @return 없는 카테고리면 null
+     */
+    public CategoryNode loadTree(Long rootId) {
+        List<CategoryNode> nodes = em.createQuery("select new jpabook.jpashop.service.CategoryNode("
+                        + "c.id, c.parent.id, c.name, cc.depth)"
+                        + " from CategoryClosure cc join cc.descendant c"
+                        + " where cc.ancestor.id = :rootId order by cc.depth, c.id", CategoryNode.class)
+                .setParameter("rootId", rootId)
+                .getResultList();
+        if (nodes.isEmpty()) {
+            return null;
+        }
+
+        // 거리 순으로 정렬되어 있으므로 부모가 항상 먼저 나온다.
+        Map<Long, CategoryNode> byId = new HashMap<>(nodes.size() * 2);
+        for (CategoryNode node : nodes) {
+            byId.put(node.getId(), node);
+            if (node.getDepth() > 0) {
+                byId.get(node.getParentId()).addChild(node);
+            }
+        }
+        return nodes.get(0);
+    }
+
+    /**
+     * 하위 트리의 모든 카테고리에 속한 상품 (CATEGORY_ITEM, 쿼리 1번)
+     */
+    public List<Item> findItems(Long rootId) {
+        return em.createQuery("select distinct i from CategoryClosure cc join cc.descendant c join c.categoryItems ci join ci.item i"
+                        + " where cc.ancestor.id = :rootId", Item.class)
+                .setParameter("rootId", rootId)
+                .getResultList();
+    }
+}
@@ -0,0 +1,89 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Item;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 상품 카탈로그 조회 (단일 테이블 ITEM 의 하위 타입별 조회)
+ * - select i from Item i where treat(i as Book).author = ? 처럼 Item 으로 조회하면
+ *   -> 모든 하위 타입의 컬럼을 다 읽고 엔티티를 만들어 영속성 컨텍스트에 올린다.
+ * - 하위 타입 엔티티(from Book b)로 조회하면 DTYPE = 'Book' 조건이 붙는다. (가격 조건은 Item 의 (price, DTYPE) 인덱스를 탐)
+ * - 결과는 그 타입의 컬럼만 DTO(BookSummary, AlbumSummary, MovieSummary)로 프로젝션한다.
+ *
+ * 여러 타입 조회 (type(i) in (Book, Movie))
+ * - Item 으로 조회해도 (price, DTYPE) 인덱스로 가격 범위만 읽지만, 모든 하위 타입 컬럼으로 엔티티를 만든다.
+ * - 타입마다 가격순으로 limit 개씩 조회하고 합쳐서 다시 limit 개만 남긴다. (쿼리는 타입 수만큼)
+ */
+public class ItemCatalog {
+
+    private final EntityManager em;
+
+    public ItemCatalog(EntityManager em) {
+        this.em = em;
+    }
+
+    public List<BookSummary> findBooksByAuthor(String author, int limit) {
+        return em.createQuery("select new jpabook.jpashop.service.BookSummary(b.id, b.name, b.price, b.author, b.isbn)"
+                        + " from Book b where b.author = :author order by b.id", BookSummary.class)
+                .setParameter("author", author)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public List<AlbumSummary> findAlbumsByArtist(String artist, int limit) {
+        return em.createQuery("select new jpabook.jpashop.service.AlbumSummary(a.id, a.name, a.price, a.artist, a.etc)"
+                        + " from Album a where a.artist = :artist order by a.id", AlbumSummary.class)
+                .setParameter("artist", artist)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public List<MovieSummary> findMoviesByDirector(String director, int limit) {
+        return em.createQuery("select new jpabook.jpashop.service.MovieSummary(m.id, m.name, m.price, m.director, m.actor)"
+                        + " from Movie m where m.director = :director order by m.id", MovieSummary.class)
+                .setParameter("director", director)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 가격 범위 안의 상품을 가격순(같으면 식별자순)으로 limit 개
+     */
+    public List<ItemSummary> findByPriceRange(Collection<Class<? extends Item>> types, int minPrice, int maxPrice, int limit) {
+        List<ItemSummary> summaries = new ArrayList<>();
+        for (Class<? extends Item> type : types) {
+            String entityName = em.getMetamodel().entity(type).getName();
+            List<Object[]> rows = em.createQuery("select i.id, i.name, i.price from " + entityName + " i"
+                            + " where i.price between :minPrice and :maxPrice order by i.price, i.id", Object[].class)
+                    .setParameter("minPrice", minPrice)
+                    .setParameter("maxPrice", maxPrice)
+                    .setMaxResults(limit)
+                    .getResultList();
+            for (Object[] row : rows) {
+                summaries.add(new ItemSummary((Long) row[0], type, (String) row[1], (Integer) row[2]));
+            }
+        }
+        summaries.sort(Comparator.comparingInt(ItemSummary::getPrice).thenComparing(ItemSummary::getId));
+        return summaries.size() > limit ? new ArrayList<>(summaries.subList(0, limit)) : summaries;
+    }
+
+    /**
+     * @return 하위 타입 -> 상품 수
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Class<? extends Item>, Long> countByType() {
+        Map<Class<? extends Item>, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : em.createQuery("select type(i), count(i) from Item i group by type(i)", Object[].class)
+                .getResultList()) {
+            counts.put((Class<? extends Item>) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+}
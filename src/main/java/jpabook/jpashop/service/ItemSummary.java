@@ -0,0 +1,43 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Item;
+
+/**
+ * 상품 목록 조회 결과 (ItemCatalog)
+ * - 공통 컬럼만 담는다. 엔티티가 아니므로 영속성 컨텍스트에 올라가지 않는다.
+ */
+public class ItemSummary {
+
+    private final Long id;
+    private final Class<? extends Item> type;
+    private final String name;
+    private final int price;
+
+    public ItemSummary(Long id, Class<? extends Item> type, String name, int price) {
+        this.id = id;
+        this.type = type;
+        this.name = name;
+        this.price = price;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Class<? extends Item> getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPrice() {
+        return price;
+    }
+
+    @Override
+    public String toString() {
+        return type.getSimpleName() + "#" + id + "(" + name + ", " + price + ")";
+    }
+}
@@ -0,0 +1,26 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Movie;
+
+/**
+ * 영화 목록 조회 결과 (ItemCatalog) : 공통 컬럼 + 영화 컬럼만
+ */
+public class MovieSummary extends ItemSummary {
+
+    private final String director;
+    private final String actor;
+
+    public MovieSummary(Long id, String name, int price, String director, String actor) {
+        super(id, Movie.class, name, price);
+        this.director = director;
+        this.actor = actor;
+    }
+
+    public String getDirector() {
+        return director;
+    }
+
+    public String getActor() {
+        return actor;
+    }
+}
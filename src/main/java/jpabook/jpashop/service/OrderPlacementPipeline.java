@@ -0,0 +1,207 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Item;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import org.HdrHistogram.Histogram;
+import org.jboss.logging.Logger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 일괄 저장 (Order + OrderItem + Delivery)
+ * - 주문을 commitSize 건씩 묶어서 트랜잭션 하나로 저장한다.
+ *   -> 배치에 들어간 상품은 IN 쿼리로 한번에 조회하고, 재고를 차감한다. (커밋 시점에 상품마다 UPDATE 1번)
+ *   -> Order 를 persist 하면 cascade 로 OrderItem, Delivery 도 저장된다.
+ *   -> flushSize 건마다 flush 한다. jpashop 유닛의 hibernate.order_inserts 로 INSERT 가 테이블별로 모여서
+ *      hibernate.jdbc.batch_size 단위의 JDBC 배치로 나간다. (ORDERS, ORDERITEM, DELIVERY 각각)
+ *   -> flush 한 주문은 준영속으로 만들어서 영속성 컨텍스트가 commitSize 만큼 커지지 않게 한다.
+ * - 재고가 부족한 주문은 건너뛰고(rejected) 나머지는 계속 처리한다.
+ * - 커밋에 실패하면(다른 트랜잭션과 재고 충돌 등) 그 배치의 주문은 모두 실패(failed)로 세고 다음 배치를 처리한다.
+ *
+ * 튜닝
+ * - commitSize 가 크면 커밋/재고 UPDATE 횟수가 줄어 처리량이 오르지만, 지연 시간(p99)과 실패 시 잃는 주문 수가 커진다.
+ * - flushSize 는 hibernate.jdbc.batch_size 와 맞춘다. (기본값)
+ */
+public class OrderPlacementPipeline {
+
+    private static final Logger log = Logger.getLogger(OrderPlacementPipeline.class);
+
+    private static final int IN_CLAUSE_SIZE = 1_000;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final EntityManagerFactory emf;
+    private final int commitSize;
+    private final int flushSize;
+
+    public OrderPlacementPipeline(EntityManagerFactory emf, int commitSize) {
+        this(emf, commitSize, jdbcBatchSize(emf));
+    }
+
+    public OrderPlacementPipeline(EntityManagerFactory emf, int commitSize, int flushSize) {
+        if (commitSize < 1 || flushSize < 1) {
+            throw new IllegalArgumentException("commitSize, flushSize 는 1 이상이어야 합니다 : " + commitSize + ", " + flushSize);
+        }
+        this.emf = emf;
+        this.commitSize = commitSize;
+        this.flushSize = flushSize;
+    }
+
+    public PlacementReport place(List<OrderRequest> requests) {
+        Histogram latencyMicros = new Histogram(SIGNIFICANT_DIGITS);
+        long placed = 0;
+        long rejected = 0;
+        long failed = 0;
+
+        long start = System.nanoTime();
+        for (int from = 0; from < requests.size(); from += commitSize) {
+            List<OrderRequest> chunk = requests.subList(from, Math.min(from + commitSize, requests.size()));
+            long[] startNanos = new long[chunk.size()];
+            int accepted = 0;
+            try {
+                accepted = placeChunk(chunk, startNanos);
+                long committed = System.nanoTime();
+                for (long orderStart : startNanos) {
+                    if (orderStart != 0) {
+                        latencyMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(committed - orderStart));
+                    }
+                }
+                placed += accepted;
+                rejected += chunk.size() - accepted;
+            } catch (RuntimeException e) {
+                log.warnf(e, "주문 배치 저장 실패 : %d 건", chunk.size());
+                failed += chunk.size();
+            }
+        }
+        return new PlacementReport(placed, rejected, failed, System.nanoTime() - start, latencyMicros);
+    }
+
+    /**
+     * @param startNanos 주문별 처리 시작 시각을 기록한다. 건너뛴 주문은 0
+     * @return 저장한 주문 수
+     */
+    private int placeChunk(List<OrderRequest> chunk, long[] startNanos) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            Map<Long, Item> items = findItems(em, chunk);
+            List<Order> unflushed = new ArrayList<>(flushSize);
+            int accepted = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                long orderStart = System.nanoTime();
+                OrderRequest request = chunk.get(i);
+                if (!hasStock(request, items)) {
+                    continue;
+                }
+                Order order = createOrder(em, request, items);
+                em.persist(order);
+                unflushed.add(order);
+                startNanos[i] = orderStart;
+                if (++accepted % flushSize == 0) {
+                    flushAndDetach(em, unflushed);
+                }
+            }
+            tx.commit();
+            return accepted;
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * 저장이 끝난 주문은 준영속으로 만들어서 다음 flush 때 다시 검사하지 않게 한다.
+     * - detach 는 cascade(ALL) 로 주문상품, 배송까지 적용된다. 상품은 재고 차감이 남아있으므로 영속 상태로 둔다.
+     */
+    private static void flushAndDetach(EntityManager em, List<Order> orders) {
+        em.flush();
+        for (Order order : orders) {
+            em.detach(order);
+        }
+        orders.clear();
+    }
+
+    private static Map<Long, Item> findItems(EntityManager em, List<OrderRequest> chunk) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (OrderRequest request : chunk) {
+            for (OrderRequest.Line line : request.getLines()) {
+                ids.add(line.getItemId());
+            }
+        }
+
+        List<Long> idList = new ArrayList<>(ids);
+        Map<Long, Item> items = new HashMap<>();
+        for (int from = 0; from < idList.size(); from += IN_CLAUSE_SIZE) {
+            List<Long> idChunk = idList.subList(from, Math.min(from + IN_CLAUSE_SIZE, idList.size()));
+            for (Item item : em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                    .setParameter("ids", idChunk)
+                    .getResultList()) {
+                items.put(item.getId(), item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * 주문의 모든 상품이 있고 재고가 충분한지 (같은 상품이 여러 줄이면 합쳐서 확인)
+     */
+    private static boolean hasStock(OrderRequest request, Map<Long, Item> items) {
+        Map<Long, Integer> required = new HashMap<>();
+        for (OrderRequest.Line line : request.getLines()) {
+            required.merge(line.getItemId(), line.getCount(), Integer::sum);
+        }
+        for (Map.Entry<Long, Integer> entry : required.entrySet()) {
+            Item item = items.get(entry.getKey());
+            if (item == null || item.getStockQuantity() < entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Order createOrder(EntityManager em, OrderRequest request, Map<Long, Item> items) {
+        Delivery delivery = new Delivery();
+        delivery.setAddress(request.getAddress());
+
+        Order order = new Order();
+        order.setMember(em.getReference(Member.class, request.getMemberId()));
+        order.setDelivery(delivery);
+        order.setOrderDate(LocalDateTime.now());
+        order.setStatus(OrderStatus.ORDER);
+
+        for (OrderRequest.Line line : request.getLines()) {
+            Item item = items.get(line.getItemId());
+            item.removeStock(line.getCount());
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setItem(item);
+            orderItem.setOrderPrice(item.getPrice());
+            orderItem.setCount(line.getCount());
+            order.addOrderItem(orderItem);
+        }
+        return order;
+    }
+
+    private static int jdbcBatchSize(EntityManagerFactory emf) {
+        Object batchSize = emf.getProperties().get("hibernate.jdbc.batch_size");
+        return batchSize == null ? 1 : Math.max(1, Integer.parseInt(batchSize.toString().trim()));
+    }
+}
@@ -0,0 +1,66 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 주문 요청 : 회원, 배송지, 주문 상품(상품 식별자, 수량) 목록
+ * - OrderRequest.of(memberId, address).line(itemId, 2).line(otherItemId, 1)
+ */
+public class OrderRequest {
+
+    private final Long memberId;
+    private final Address address;
+    private final List<Line> lines = new ArrayList<>();
+
+    private OrderRequest(Long memberId, Address address) {
+        this.memberId = memberId;
+        this.address = address;
+    }
+
+    public static OrderRequest of(Long memberId, Address address) {
+        return new OrderRequest(memberId, address);
+    }
+
+    public OrderRequest line(Long itemId, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("주문 수량은 1 이상이어야 합니다 : " + count);
+        }
+        lines.add(new Line(itemId, count));
+        return this;
+    }
+
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    public Address getAddress() {
+        return address;
+    }
+
+    public List<Line> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+
+    public static class Line {
+
+        private final Long itemId;
+        private final int count;
+
+        private Line(Long itemId, int count) {
+            this.itemId = itemId;
+            this.count = count;
+        }
+
+        public Long getItemId() {
+            return itemId;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
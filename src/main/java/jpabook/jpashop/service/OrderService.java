@@ -0,0 +1,222 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Item;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.NotEnoughStockException;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import org.hibernate.StaleStateException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.OptimisticLockException;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 주문 생성 + 재고 차감
+ * - 재고 차감과 주문 저장을 한 트랜잭션에서 처리한다. (재시도 때문에 트랜잭션을 서비스가 직접 연다)
+ *
+ * order() : 낙관적 락 (Item.version)
+ * - 상품 조회 -> 재고 확인 -> version 재확인 -> 재고 차감 UPDATE -> 주문 저장
+ *   -> version 재확인 : 읽은 뒤에 다른 주문이 먼저 커밋해서 version 이 바뀌었으면 OptimisticLockException
+ *   -> 충돌하면 트랜잭션을 롤백하고 처음부터 다시 시도한다.
+ *      최대 maxAttempts 번, 재시도 사이에 지수 백오프 + 지터로 쉰다. (동시에 다시 충돌하지 않도록)
+ *      재시도를 다 써도 실패하면 마지막 OptimisticLockException 을 던진다.
+ *   -> 차감 UPDATE : update versioned Item i set i.stockQuantity = i.stockQuantity - :count
+ *                    where i.id = :itemId and i.stockQuantity >= :count (version 도 1 올라감)
+ *      재확인과 UPDATE 사이에 끼어든 주문이 있어도 커밋된 최신 재고에서 빼므로 재고와 주문 수량이 어긋나지 않는다.
+ * - 엔티티를 고치고 커밋 시점의 update ... where version = ? 로 충돌을 알아내지 않는 이유
+ *   -> 충돌을 커밋(flush)할 때에야 알게 되어서, 주문 INSERT 와 상품 UPDATE(행 락 대기 포함)까지 마친 뒤 롤백한다.
+ *      상품 행을 UPDATE 한 시도가 롤백되면 그 락을 기다리던 다른 주문의 재고 차감이 사라지는 경우가 있었다.
+ *      (StockContentionBenchmark tearDown : 재고 감소 3471 != 주문 수량 3473)
+ *   -> 버전 UPDATE 가 JDBC 배치로 나가므로 충돌마다 배치 실패가 HHH000315 (StaleStateException) 로
+ *      스택 트레이스와 함께 기록된다. 한 상품에 주문이 몰리면 대부분의 시도가 충돌이라 로그가 처리량을 깎는다. (40 ~ 190 ops/s)
+ * - 비관적 락(select ... for update)과 달리 재고를 읽는 동안 다른 주문을 막지 않는다. (차감 UPDATE 부터 커밋까지만 행 락)
+ *
+ * orderWithConditionalUpdate() : 조건부 UPDATE 한 번으로 차감
+ * - order() 와 같은 UPDATE 를 먼저 실행하고 version 확인 없이 주문을 저장한다.
+ *   -> 재고 확인과 차감이 DB 안에서 한번에 일어나므로 충돌로 인한 재시도가 없다.
+ *   -> 영향 받은 행이 0 이면 재고 부족
+ *   -> versioned : version 도 함께 올려서 order() 로 같은 상품을 동시에 주문하는 쪽이 충돌을 감지할 수 있게 한다.
+ * - 커밋할 때까지 상품 행 락을 잡으므로 같은 상품 주문은 DB 에서 줄을 선다. (대신 재시도 비용이 없음)
+ *
+ * 공통
+ * - 재고가 부족하면 NotEnoughStockException (재시도하지 않음)
+ */
+public class OrderService {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 10;
+    public static final long DEFAULT_BASE_BACKOFF_MICROS = 100;
+    public static final long DEFAULT_MAX_BACKOFF_MICROS = 10_000;
+
+    private final EntityManagerFactory emf;
+    private final int maxAttempts;
+    private final long baseBackoffMicros;
+    private final long maxBackoffMicros;
+
+    private final LongAdder retries = new LongAdder();
+
+    public OrderService(EntityManagerFactory emf) {
+        this(emf, DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_BACKOFF_MICROS, DEFAULT_MAX_BACKOFF_MICROS);
+    }
+
+    public OrderService(EntityManagerFactory emf, int maxAttempts, long baseBackoffMicros, long maxBackoffMicros) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts 는 1 이상이어야 합니다 : " + maxAttempts);
+        }
+        this.emf = emf;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMicros = baseBackoffMicros;
+        this.maxBackoffMicros = maxBackoffMicros;
+    }
+
+    /**
+     * @return 주문 식별자
+     */
+    public Long order(Long memberId, Long itemId, int count) {
+        OptimisticLockException last = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                return inTransaction(em -> {
+                    Item item = em.find(Item.class, itemId);
+                    if (item == null) {
+                        throw new IllegalArgumentException("상품이 없습니다 : " + itemId);
+                    }
+                    item.checkStock(count);
+                    // 읽은 상품(가격, 재고)으로 주문을 만들므로 읽은 뒤에 다른 주문이 상품을 바꿨으면 처음부터 다시 한다.
+                    // 상품 행을 UPDATE 하기 전에 확인해서, 충돌한 시도는 읽기만 하고 롤백되게 한다.
+                    if (!item.getVersion().equals(currentVersion(em, itemId))) {
+                        throw new OptimisticLockException(
+                                "상품이 읽은 뒤에 변경됨 : itemId=" + itemId + ", version=" + item.getVersion(), null, item);
+                    }
+                    if (removeStock(em, itemId, count) == 0) {
+                        throw new NotEnoughStockException("재고 부족 : itemId=" + itemId + ", quantity=" + count);
+                    }
+                    return saveOrder(em, memberId, item, count);
+                });
+            } catch (RuntimeException e) {
+                OptimisticLockException conflict = findOptimisticLockFailure(e);
+                if (conflict == null) {
+                    throw e;
+                }
+                last = conflict;
+            }
+            if (attempt < maxAttempts) {
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+        throw last;
+    }
+
+    /**
+     * @return 주문 식별자
+     */
+    public Long orderWithConditionalUpdate(Long memberId, Long itemId, int count) {
+        return inTransaction(em -> {
+            if (removeStock(em, itemId, count) == 0) {
+                throw new NotEnoughStockException("재고 부족 또는 상품 없음 : itemId=" + itemId + ", quantity=" + count);
+            }
+            // 벌크 연산 후에 조회하므로 차감된 재고, 올라간 버전이 반영된 상품을 얻는다.
+            Item item = em.find(Item.class, itemId);
+            return saveOrder(em, memberId, item, count);
+        });
+    }
+
+    /**
+     * @return 지금까지 낙관적 락 충돌로 다시 시도한 횟수
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * 커밋된 최신 재고에서 count 만큼 뺀다. (재고가 모자라면 0 건, 커밋할 때까지 상품 행 락을 잡음)
+     *
+     * @return 영향 받은 행 수
+     */
+    private static int removeStock(EntityManager em, Long itemId, int count) {
+        return em.createQuery(
+                        "update versioned Item i set i.stockQuantity = i.stockQuantity - :count"
+                                + " where i.id = :itemId and i.stockQuantity >= :count")
+                .setParameter("count", count)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+    }
+
+    private static Long currentVersion(EntityManager em, Long itemId) {
+        return em.createQuery("select i.version from Item i where i.id = :itemId", Long.class)
+                .setParameter("itemId", itemId)
+                .getSingleResult();
+    }
+
+    private static Long saveOrder(EntityManager em, Long memberId, Item item, int count) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(item.getPrice());
+        orderItem.setCount(count);
+
+        Order order = new Order();
+        order.setMember(em.getReference(Member.class, memberId));
+        order.setOrderDate(LocalDateTime.now());
+        order.setStatus(OrderStatus.ORDER);
+        order.addOrderItem(orderItem);
+        em.persist(order);
+        return order.getId();
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> work) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            T result = work.apply(em);
+            tx.commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * 커밋 중 충돌은 RollbackException 으로 감싸져서 오므로 원인을 따라가며 찾는다.
+     */
+    private static OptimisticLockException findOptimisticLockFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException) {
+                return (OptimisticLockException) cause;
+            }
+            if (cause instanceof StaleStateException) {
+                return new OptimisticLockException(cause.getMessage(), cause);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 0 ~ min(max, base * 2^(attempt-1)) 마이크로초 사이에서 임의로 쉰다. (full jitter)
+     */
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMicros, baseBackoffMicros << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MICROSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("주문 재시도 대기 중 인터럽트", e);
+        }
+    }
+}
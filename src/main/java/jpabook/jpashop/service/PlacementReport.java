@@ -0,0 +1,63 @@
+package jpabook.jpashop.service;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 일괄 처리 결과
+ * - placed : 저장된 주문, rejected : 재고 부족으로 건너뛴 주문, failed : 커밋에 실패한 배치의 주문
+ * - 지연 시간 : 주문 처리를 시작한 시점부터 그 주문이 들어간 트랜잭션이 커밋될 때까지 (마이크로초)
+ *   -> 커밋 단위가 클수록 처리량은 오르지만 먼저 처리한 주문도 배치가 끝날 때까지 기다린다.
+ */
+public class PlacementReport {
+
+    private final long placed;
+    private final long rejected;
+    private final long failed;
+    private final long elapsedNanos;
+    private final Histogram latencyMicros;
+
+    PlacementReport(long placed, long rejected, long failed, long elapsedNanos, Histogram latencyMicros) {
+        this.placed = placed;
+        this.rejected = rejected;
+        this.failed = failed;
+        this.elapsedNanos = elapsedNanos;
+        this.latencyMicros = latencyMicros;
+    }
+
+    public long getPlaced() {
+        return placed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public double getOrdersPerSecond() {
+        return elapsedNanos == 0 ? 0 : placed * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public long getLatencyMicros(double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile);
+    }
+
+    public long getP99Micros() {
+        return getLatencyMicros(99);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("placed=%d, rejected=%d, failed=%d, %.0f orders/s, p50=%dus, p99=%dus, max=%dus",
+                placed, rejected, failed, getOrdersPerSecond(),
+                getLatencyMicros(50), getP99Micros(), latencyMicros.getMaxValue());
+    }
+}
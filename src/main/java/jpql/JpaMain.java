@@ -54,6 +54,8 @@ import java.util.List;
  * - JPA는 페이징을 다음 두 API로 추상화함
  * - setFirstResult(int startPosition) : 조회 시작 위치 지정(0부터 시작)
  * - setMaxResult(int maxResult) : 조회할 데이터 수
+ * - 오프셋 페이징은 앞의 행을 모두 읽고 버리므로 뒤 페이지일수록 느려진다.
+ *   -> 다음 페이지로만 이동하는 목록은 키셋 페이징 사용 (jpql.paging.MemberKeysetPager)
  *
  * 조인
  * - 내부 조인 : SELECT m FROM Member m [INNER] JOIN m.team t
@@ -115,6 +117,7 @@ import java.util.List;
  * 사용자 정의 함수 호출
  * - 하이버네이트는 사용 전 방언에 추가해야 한다.
  * - 사용하는 DB 방언을 상속 받고 사용자 정의 함수를 등록한다.
+ *   -> 백분위수, listagg, 순위(윈도우) 함수 : jpql.dialect.MyH2Dialect, 사용 예 : jpql.report.RollupReport
  *
  * 경로 표현식
  * - .(점)을 찍어 객체 그래프를 탐색하는 것
@@ -177,6 +180,8 @@ import java.util.List;
  *   - 컬렉션을 페치 조인하면 페이징 API를 사용할 수 없다.
  *     - 일대일, 다대일 같은 단일 값 연관 필드들은 페치 조인해도 페이징 가능
  *     - 하이버네이트는 경고 로그를 남기고 메모리에서 페이징(매우 위험)
+ *       -> persistence.xml 에 fail_on_pagination_over_collection_fetch 를 설정해서 예외가 발생하게 함
+ *       -> 팀 식별자를 먼저 페이징하고 그 팀들만 페치 조인 (jpql.paging.TeamMembersPager)
  *   - 연관된 엔티티들은 SQL 한번으로 조회 - 성능 최적화
  *   - 엔티티에 직접 적용하는 글로벌 로딩 전략보다 우선됨
  *     - 글로벌 로딩 전략 : @OneToMany(fetch = FetchType.LAZY)
@@ -246,6 +251,8 @@ import java.util.List;
  *   1. 영속성 컨텍스트에 어떤 변경 사항을 남기기 전에 벌크 연산을 최우선으로 실행하는 방법
  *   2. 벌크 연산을 수행하고 나서 영속성 컨텍스트를 초기화 하는 방법(em.clear())
  *     - 참고 : 벌크 연산은 실행 되기 직전에 flush가 일어난다!
+ *   3. 벌크 연산 대상 중 영속 상태인 엔티티만 새로고침 하는 방법(jpql.bulk.MemberBulkUpdater)
+ *     - em.clear()와 달리 관계없는 엔티티는 영속성 컨텍스트에 그대로 남는다.
  */
 public class JpaMain {
 
@@ -1,16 +1,36 @@
 package jpql;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.QueryHints;
+
 import javax.persistence.*;
 
 @Entity
+// 키셋 페이징(jpql.paging.MemberKeysetPager) 정렬 기준별 인덱스
+@Table(indexes = {
+        @Index(name = "IDX_MEMBER_AGE_ID", columnList = "age, id"),
+        @Index(name = "IDX_MEMBER_USERNAME_ID", columnList = "username, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "jpql.Member")
+@SequenceGenerator(name = "MEMBER_SEQ_GENERATOR",
+        sequenceName = "MEMBER_SEQ",
+        initialValue = 1,
+        allocationSize = 50)
 @NamedQuery(
         name = "Member.findByUsername",
-        query = "select m from Member m where m.username = :username"
+        query = "select m from Member m where m.username = :username",
+        // 쿼리 캐시 : 결과(회원 식별자 목록)를 캐시하고, MEMBER 테이블이 변경되면 자동으로 무효화된다.
+        hints = {
+                @QueryHint(name = QueryHints.CACHEABLE, value = "true"),
+                @QueryHint(name = QueryHints.CACHE_REGION, value = "jpql.Member.findByUsername")
+        }
 )
 public class Member {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "MEMBER_SEQ_GENERATOR")
     private Long id;
 
     private String username;
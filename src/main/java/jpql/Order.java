@@ -4,10 +4,14 @@ import javax.persistence.*;
 
 @Entity
 @Table(name = "ORDERS")
+@SequenceGenerator(name = "ORDERS_SEQ_GENERATOR",
+        sequenceName = "ORDERS_SEQ",
+        initialValue = 1,
+        allocationSize = 50)
 public class Order {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ORDERS_SEQ_GENERATOR")
     private Long id;
 
     private int orderAmount;
@@ -1,14 +1,26 @@
 package jpql;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "jpql.Product")
+@SequenceGenerator(name = "PRODUCT_SEQ_GENERATOR",
+        sequenceName = "PRODUCT_SEQ",
+        initialValue = 1,
+        allocationSize = 50)
 public class Product {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "PRODUCT_SEQ_GENERATOR")
     private Long id;
 
     private String name;
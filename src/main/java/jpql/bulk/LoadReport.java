@@ -0,0 +1,57 @@
+package jpql.bulk;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대량 적재 결과
+ * - 커밋까지 완료된 행 수만 센다.
+ */
+public class LoadReport {
+
+    private final long teams;
+    private final long members;
+    private final long chunks;
+    private final long elapsedNanos;
+
+    public LoadReport(long teams, long members, long chunks, long elapsedNanos) {
+        this.teams = teams;
+        this.members = members;
+        this.chunks = chunks;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getTeams() {
+        return teams;
+    }
+
+    public long getMembers() {
+        return members;
+    }
+
+    public long getRows() {
+        return teams + members;
+    }
+
+    public long getChunks() {
+        return chunks;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : getRows() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadReport{" +
+                "teams=" + teams +
+                ", members=" + members +
+                ", chunks=" + chunks +
+                ", elapsedMillis=" + getElapsedMillis() +
+                ", rowsPerSecond=" + String.format("%.0f", getRowsPerSecond()) +
+                '}';
+    }
+}
@@ -0,0 +1,112 @@
+package jpql.bulk;
+
+import jpql.Member;
+import jpql.Team;
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.util.Iterator;
+
+/**
+ * 팀/회원 대량 적재
+ * - em.persist()를 하나씩 호출하고 커밋하면 영속성 컨텍스트에 엔티티가 계속 쌓여서
+ *   플러시 때마다 변경 감지 비용이 커지고, 결국 메모리가 부족해진다.
+ * - chunkSize 행마다 flush -> commit -> clear 해서 영속성 컨텍스트 크기를 일정하게 유지한다.
+ * - INSERT는 JDBC 배치(jdbcBatchSize)로 모아서 보낸다.
+ *   -> persistence.xml 의 hibernate.order_inserts 설정으로 TEAM, MEMBER INSERT가 테이블별로 묶인다.
+ *
+ * 입력
+ * - Team.getMembers()에 소속 회원을 담고, 각 회원의 team도 해당 팀으로 설정한 그래프
+ * - 전체 데이터를 메모리에 올리지 않도록 Iterator로 하나씩 만들어서 넘기는 것을 권장한다.
+ *
+ * 주의
+ * - 청크마다 커밋하므로 중간에 실패하면 이전 청크까지는 DB에 반영되어 있다.
+ */
+public class MemberBulkLoader {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1_000;
+    public static final int DEFAULT_JDBC_BATCH_SIZE = 100;
+
+    private final EntityManagerFactory emf;
+    private final int chunkSize;
+    private final int jdbcBatchSize;
+
+    public MemberBulkLoader(EntityManagerFactory emf) {
+        this(emf, DEFAULT_CHUNK_SIZE, DEFAULT_JDBC_BATCH_SIZE);
+    }
+
+    public MemberBulkLoader(EntityManagerFactory emf, int chunkSize, int jdbcBatchSize) {
+        if (chunkSize <= 0 || jdbcBatchSize <= 0) {
+            throw new IllegalArgumentException("chunkSize, jdbcBatchSize 는 0보다 커야 합니다.");
+        }
+        this.emf = emf;
+        this.chunkSize = chunkSize;
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    public LoadReport load(Iterator<Team> teams) {
+        long start = System.nanoTime();
+        long teamCount = 0;
+        long memberCount = 0;
+        long chunkCount = 0;
+
+        EntityManager em = emf.createEntityManager();
+        em.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+        EntityTransaction tx = em.getTransaction();
+
+        try {
+            tx.begin();
+            int rowsInChunk = 0;
+
+            while (teams.hasNext()) {
+                Team team = teams.next();
+                em.persist(team);
+                teamCount++;
+
+                // 회원이 없는 팀만 계속 들어와도 청크 크기를 넘지 않도록 팀도 행으로 센다.
+                if (++rowsInChunk >= chunkSize) {
+                    commitChunk(em, tx);
+                    chunkCount++;
+                    rowsInChunk = 0;
+                }
+
+                for (Member member : team.getMembers()) {
+                    em.persist(member);
+                    memberCount++;
+
+                    if (++rowsInChunk >= chunkSize) {
+                        commitChunk(em, tx);
+                        chunkCount++;
+                        rowsInChunk = 0;
+                    }
+                }
+            }
+
+            tx.commit();
+            if (rowsInChunk > 0) {
+                chunkCount++;
+            }
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+
+        return new LoadReport(teamCount, memberCount, chunkCount, System.nanoTime() - start);
+    }
+
+    /**
+     * 커밋 직전에 flush가 일어나므로 커밋 후 clear 하면 된다.
+     * 청크 경계에 걸친 팀은 준영속 상태가 되지만, 회원의 외래 키는 팀의 식별자만 사용하므로 문제없다.
+     */
+    private void commitChunk(EntityManager em, EntityTransaction tx) {
+        tx.commit();
+        em.clear();
+        tx.begin();
+    }
+}
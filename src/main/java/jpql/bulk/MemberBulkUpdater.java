@@ -0,0 +1,148 @@
+package jpql.bulk;
+
+import jpql.Member;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 영속성 컨텍스트를 고려한 회원 벌크 연산
+ * - 벌크 연산은 영속성 컨텍스트를 무시하고 DB에 직접 쿼리하므로, 이미 조회한 회원은 이전 값을 그대로 가지고 있다.
+ * - em.clear()로 해결하면 벌크 연산과 관계없는 엔티티까지 모두 버리게 된다.
+ * - 벌크 연산 대상 중 현재 영속성 컨텍스트에 있는 회원만 찾아서 새로고침(refresh)하거나 준영속(detach) 상태로 만든다.
+ *
+ * 동작 순서
+ * 1. 영속 상태인 회원의 식별자를 모은다.
+ * 2. 벌크 연산 전에 같은 조건으로 그 중 대상이 되는 회원을 조회한다. (식별자 IN 조건으로 범위를 제한)
+ * 3. 벌크 연산 실행 (실행 직전에 flush 가 일어남)
+ * 4. 대상 회원만 refresh 또는 detach
+ *
+ * 참고
+ * - 2차 캐시 : 하이버네이트는 벌크 연산 후 jpql.Member 리전 전체와 MEMBER 테이블을 사용하는 쿼리 캐시를 무효화한다.
+ *   (어떤 행이 바뀌었는지 알 수 없으므로 리전 단위로 처리함)
+ *   -> 벌크 연산 시점에 리전을 잠그고, 트랜잭션이 끝날 때(커밋, 롤백 모두) 비운다.
+ *   -> REFRESH 로 다시 읽은 대상은 잠긴 동안 캐시에 넣으려 한 항목이 남지만, 조회 시 적중하지 않고 DB에서 읽는다.
+ * - 조건절, SET 절의 별칭은 m 을 사용한다. ex) update("m.age = :age", "m.team.id = :teamId", params)
+ */
+public class MemberBulkUpdater {
+
+    private static final int IN_CLAUSE_SIZE = 1_000;
+
+    public enum SyncMode {
+        /**
+         * DB에서 다시 읽어서 같은 인스턴스에 반영 (대상 회원마다 SELECT 1번)
+         */
+        REFRESH,
+        /**
+         * 영속성 컨텍스트와 2차 캐시에서 제거, 다시 필요하면 em.find()로 새로 조회해야 함 (추가 SQL 없음)
+         */
+        DETACH
+    }
+
+    private final EntityManager em;
+    private final SyncMode syncMode;
+
+    public MemberBulkUpdater(EntityManager em) {
+        this(em, SyncMode.REFRESH);
+    }
+
+    public MemberBulkUpdater(EntityManager em, SyncMode syncMode) {
+        this.em = em;
+        this.syncMode = syncMode;
+    }
+
+    public int update(String setClause, Map<String, ?> parameters) {
+        return update(setClause, null, parameters);
+    }
+
+    /**
+     * @param setClause   ex) "m.age = :age"
+     * @param whereClause ex) "m.team.id = :teamId", 전체 대상이면 null
+     * @return 영향 받은 회원 수
+     */
+    public int update(String setClause, String whereClause, Map<String, ?> parameters) {
+        List<Member> affected = findManagedTargets(whereClause, parameters);
+
+        String jpql = "update Member m set " + setClause + (whereClause == null ? "" : " where " + whereClause);
+        Query update = em.createQuery(jpql);
+        parameters.forEach(update::setParameter);
+        int resultCount = update.executeUpdate();
+
+        Cache cache = em.getEntityManagerFactory().getCache();
+        for (Member member : affected) {
+            if (syncMode == SyncMode.REFRESH) {
+                em.refresh(member);
+            } else {
+                em.detach(member);
+                // 리전은 트랜잭션이 끝나야 비워지므로, 같은 트랜잭션의 em.find()가 이전 값을 캐시에서 읽지 않도록 바로 제거한다.
+                cache.evict(Member.class, member.getId());
+            }
+        }
+        return resultCount;
+    }
+
+    private List<Member> findManagedTargets(String whereClause, Map<String, ?> parameters) {
+        Map<Long, Member> managed = managedMembers();
+        if (managed.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (whereClause == null) {
+            return new ArrayList<>(managed.values());
+        }
+
+        String jpql = "select m.id from Member m where (" + whereClause + ") and m.id in :managedIds";
+        List<Long> ids = new ArrayList<>(managed.keySet());
+        Set<Long> targetIds = new HashSet<>();
+
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_SIZE, ids.size()));
+            TypedQuery<Long> query = em.createQuery(jpql, Long.class)
+                    .setParameter("managedIds", chunk);
+            bindDeclared(query, parameters);
+            targetIds.addAll(query.getResultList());
+        }
+
+        List<Member> targets = new ArrayList<>(targetIds.size());
+        for (Long id : targetIds) {
+            targets.add(managed.get(id));
+        }
+        return targets;
+    }
+
+    /**
+     * SET 절에만 쓰이는 파라미터는 대상 조회 쿼리에 없으므로 선언된 파라미터만 바인딩한다.
+     */
+    private static void bindDeclared(Query query, Map<String, ?> parameters) {
+        for (Parameter<?> parameter : query.getParameters()) {
+            String name = parameter.getName();
+            if (name != null && parameters.containsKey(name)) {
+                query.setParameter(name, parameters.get(name));
+            }
+        }
+    }
+
+    private Map<Long, Member> managedMembers() {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        Map<Long, Member> managed = new HashMap<>();
+
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Member && entry.getValue().getStatus() == Status.MANAGED) {
+                managed.put((Long) entry.getValue().getId(), (Member) entry.getKey());
+            }
+        }
+        return managed;
+    }
+}
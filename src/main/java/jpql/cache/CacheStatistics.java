@@ -0,0 +1,75 @@
+package jpql.cache;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 2차 캐시 리전별 적중/미스 통계
+ * - persistence.xml 의 hibernate.generate_statistics 가 true 여야 값이 쌓인다.
+ * - 리전 이름은 엔티티/컬렉션의 @Cache(region = ...) 값
+ * - 쿼리 캐시 리전(org.hibernate.cacheRegion 힌트)도 같은 방식으로 조회할 수 있다.
+ */
+public class CacheStatistics {
+
+    public static final String TEAM_REGION = "jpql.Team";
+    public static final String TEAM_MEMBERS_REGION = "jpql.Team.members";
+    public static final String PRODUCT_REGION = "jpql.Product";
+    public static final String MEMBER_REGION = "jpql.Member";
+    public static final String MEMBER_BY_USERNAME_REGION = "jpql.Member.findByUsername";
+
+    private final Statistics statistics;
+
+    public CacheStatistics(EntityManagerFactory emf) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public long getHitCount(String region) {
+        return region(region).getHitCount();
+    }
+
+    public long getMissCount(String region) {
+        return region(region).getMissCount();
+    }
+
+    public long getPutCount(String region) {
+        return region(region).getPutCount();
+    }
+
+    /**
+     * @return 적중률(0.0 ~ 1.0), 조회가 한번도 없었으면 0
+     */
+    public double getHitRatio(String region) {
+        long hit = getHitCount(region);
+        long total = hit + getMissCount(region);
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * @return 리전 이름 -> "hit=.., miss=.., put=.., ratio=.." (모든 2차 캐시 리전)
+     */
+    public Map<String, String> summary() {
+        Map<String, String> summary = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            summary.put(region, String.format("hit=%d, miss=%d, put=%d, ratio=%.3f",
+                    getHitCount(region), getMissCount(region), getPutCount(region), getHitRatio(region)));
+        }
+        return summary;
+    }
+
+    public void clear() {
+        statistics.clear();
+    }
+
+    private CacheRegionStatistics region(String region) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        if (regionStatistics == null) {
+            throw new IllegalArgumentException("2차 캐시 리전이 없습니다 : " + region);
+        }
+        return regionStatistics;
+    }
+}
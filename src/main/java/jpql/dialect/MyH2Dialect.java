@@ -1,12 +1,63 @@
 package jpql.dialect;
 
 import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
 import org.hibernate.dialect.function.StandardSQLFunction;
 import org.hibernate.type.StandardBasicTypes;
 
+/**
+ * H2 사용자 정의 함수 등록
+ * - JPQL 에는 WITHIN GROUP, OVER 문법이 없으므로 SQLFunctionTemplate 으로 감싸서 함수처럼 호출한다.
+ *   -> ?1, ?2 ... 자리에 JPQL 함수 인자가 들어간다.
+ * - 팀별 나이 분포, 주문 수량 순위 같은 집계를 엔티티를 모두 조회해서 자바로 계산하지 않고 SQL 한번으로 처리한다.
+ *   (jpql.report.RollupReport 참고)
+ *
+ * 집계 함수 (group by 와 함께 사용)
+ * - percentile_cont(0.9, m.age) : 연속 백분위수 (보간)
+ * - percentile_disc(0.9, m.age) : 불연속 백분위수 (실제 값 중 하나)
+ * - median(m.age) : 중앙값 (= percentile_cont(0.5, m.age))
+ * - listagg(m.username, ',') : 문자열 연결 (값 순서로 정렬)
+ * - listagg_ordered(m.username, ',', m.id) : 문자열 연결 (세 번째 인자 순서로 정렬)
+ * - listagg_distinct(m.username, ',') : 중복 제거 후 문자열 연결
+ *
+ * 윈도우 함수 (파티션별 순위, 1부터 시작)
+ * - row_number_over(파티션, 정렬) : 같은 값이어도 다른 순번
+ * - rank_over(파티션, 정렬) : 같은 값은 같은 순위, 다음 순위는 건너뜀 (1, 1, 3)
+ * - dense_rank_over(파티션, 정렬) : 같은 값은 같은 순위, 다음 순위는 이어짐 (1, 1, 2)
+ * - *_desc : 정렬 기준 내림차순
+ *   ex) select o.id, rank_over_desc(p.id, o.orderAmount) from Order o join o.product p
+ *       -> rank() over (partition by p.id order by o.orderAmount desc)
+ * - 윈도우 함수는 select 절에서만 사용할 수 있다. (where 절에서 순위로 거를 수 없음)
+ */
 public class MyH2Dialect extends H2Dialect {
 
     public MyH2Dialect() {
         registerFunction("group_concat", new StandardSQLFunction("group_concat", StandardBasicTypes.STRING));
+
+        registerFunction("percentile_cont", new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+                "percentile_cont(?1) within group (order by ?2)"));
+        registerFunction("percentile_disc", new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+                "percentile_disc(?1) within group (order by ?2)"));
+        // H2 MEDIAN 은 정수 컬럼이면 결과도 정수이므로 percentile_cont(0.5)로 대신한다.
+        registerFunction("median", new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+                "percentile_cont(0.5) within group (order by ?1)"));
+
+        registerFunction("listagg", new SQLFunctionTemplate(StandardBasicTypes.STRING,
+                "listagg(?1, ?2) within group (order by ?1)"));
+        registerFunction("listagg_ordered", new SQLFunctionTemplate(StandardBasicTypes.STRING,
+                "listagg(?1, ?2) within group (order by ?3)"));
+        registerFunction("listagg_distinct", new SQLFunctionTemplate(StandardBasicTypes.STRING,
+                "listagg(distinct ?1, ?2) within group (order by ?1)"));
+
+        registerWindowFunction("row_number");
+        registerWindowFunction("rank");
+        registerWindowFunction("dense_rank");
+    }
+
+    private void registerWindowFunction(String name) {
+        registerFunction(name + "_over", new SQLFunctionTemplate(StandardBasicTypes.LONG,
+                name + "() over (partition by ?1 order by ?2)"));
+        registerFunction(name + "_over_desc", new SQLFunctionTemplate(StandardBasicTypes.LONG,
+                name + "() over (partition by ?1 order by ?2 desc)"));
     }
 }
@@ -0,0 +1,54 @@
+package jpql.monitor;
+
+import org.hibernate.HibernateException;
+import org.hibernate.event.internal.DefaultAutoFlushEventListener;
+import org.hibernate.event.internal.DefaultFlushEventListener;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+
+/**
+ * flush 구간 표시 (QueryMetricsStatistics 가 쿼리 시작 시점을 찾을 때 flush SQL을 빼도록)
+ * - 자동 flush 는 트랜잭션 안에서 쿼리를 실행하기 직전에 하이버네이트가 부른다. -> 끝나면 쿼리 시작으로 알린다.
+ *   (트랜잭션 밖에서는 이벤트가 오지 않지만, flush 할 수도 없으므로 flush SQL도 없다.)
+ * - 명시적 flush, 커밋 시 flush 동안 실행된 SQL은 쿼리가 아닌 구간으로 알린다.
+ */
+final class FlushListeners {
+
+    private FlushListeners() {
+    }
+
+    static class AutoFlush implements AutoFlushEventListener {
+
+        private final AutoFlushEventListener delegate = new DefaultAutoFlushEventListener();
+
+        @Override
+        public void onAutoFlush(AutoFlushEvent event) throws HibernateException {
+            QueryMetricsStatistics statistics = LazyLoadListeners.sideWorkStarted(event.getSession());
+            try {
+                delegate.onAutoFlush(event);
+            } finally {
+                LazyLoadListeners.sideWorkFinished(statistics);
+            }
+            if (statistics != null) {
+                statistics.queryStarting();
+            }
+        }
+    }
+
+    static class Flush implements FlushEventListener {
+
+        private final FlushEventListener delegate = new DefaultFlushEventListener();
+
+        @Override
+        public void onFlush(FlushEvent event) throws HibernateException {
+            QueryMetricsStatistics statistics = LazyLoadListeners.sideWorkStarted(event.getSession());
+            try {
+                delegate.onFlush(event);
+            } finally {
+                LazyLoadListeners.sideWorkFinished(statistics);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package jpql.monitor;
+
+import org.hibernate.HibernateException;
+import org.hibernate.bytecode.enhance.spi.interceptor.EnhancementAsProxyLazinessInterceptor;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+import org.hibernate.engine.spi.PersistentAttributeInterceptor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.internal.DefaultInitializeCollectionEventListener;
+import org.hibernate.event.internal.DefaultLoadEventListener;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 지연 로딩 구간 표시
+ * - 하이버네이트 기본 리스너를 감싸서, 기본 리스너가 실행되는 동안 실행된 SQL을 지연 로딩 비용으로 기록한다.
+ * - 구간 종료는 finally 에서 기록한다. -> 로딩 중 예외가 나도 작업 단위의 로딩 스택이 어긋나지 않는다.
+ * - 모든 로딩 구간(em.find 등 지연 로딩이 아닌 LoadEvent 포함)은 QueryMetricsStatistics 에 쿼리가 아닌 구간으로도 알린다.
+ * - 프록시 초기화는 IMMEDIATE_LOAD 타입의 LoadEvent 로 들어온다.
+ * - 바이트코드 향상 엔티티(기본 빌드)의 LAZY 단일 연관관계(Member.team)는 프록시 대신 초기화 전 엔티티 인스턴스이고,
+ *   첫 접근 때 LoadEvent 없이 EnhancementAsProxyLazinessInterceptor.forceInitialize 에서 바로 조회된다.
+ *   -> 그 인스턴스를 만드는 LoadEvent(INTERNAL_LOAD_LAZY, getReference 의 LOAD) 뒤에 인터셉터를 Tracking 으로 바꿔서
+ *      forceInitialize 동안을 지연 로딩 구간으로 기록한다.
+ *   -> 복합 식별자 엔티티는 바꾸지 않는다. (감지되지 않음)
+ */
+final class LazyLoadListeners {
+
+    private LazyLoadListeners() {
+    }
+
+    static class InitializeCollection implements InitializeCollectionEventListener {
+
+        private final InitializeCollectionEventListener delegate = new DefaultInitializeCollectionEventListener();
+
+        @Override
+        public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+            // 이미 초기화된 컬렉션은 SQL이 없지만, 안에서 일어나는 로딩이 이 구간의 비용으로 잡히지 않도록 자리를 맞춘다.
+            QueryMetricsStatistics statistics = lazyLoadStarted(event.getSession(),
+                    event.getCollection().wasInitialized() ? null : event.getCollection().getRole());
+            try {
+                delegate.onInitializeCollection(event);
+            } finally {
+                lazyLoadFinished(statistics);
+            }
+        }
+    }
+
+    static class Load implements LoadEventListener {
+
+        private final LoadEventListener delegate = new DefaultLoadEventListener();
+
+        @Override
+        public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+            if (loadType != LoadEventListener.IMMEDIATE_LOAD) {
+                QueryMetricsStatistics statistics = sideWorkStarted(event.getSession());
+                try {
+                    delegate.onLoad(event, loadType);
+                } finally {
+                    sideWorkFinished(statistics);
+                }
+                trackEnhancedProxy(event.getResult(), event.getSession());
+                return;
+            }
+            QueryMetricsStatistics statistics = lazyLoadStarted(event.getSession(), event.getEntityClassName());
+            try {
+                delegate.onLoad(event, loadType);
+            } finally {
+                lazyLoadFinished(statistics);
+            }
+        }
+    }
+
+    private static QueryMetricsStatistics lazyLoadStarted(SharedSessionContractImplementor session, String path) {
+        NPlusOneDetector.lazyLoadStarted(path);
+        return sideWorkStarted(session);
+    }
+
+    private static void lazyLoadFinished(QueryMetricsStatistics statistics) {
+        sideWorkFinished(statistics);
+        NPlusOneDetector.lazyLoadFinished();
+    }
+
+    /**
+     * @return 구간을 알린 통계 (QueryMetricsStatistics 가 아니면 null)
+     */
+    static QueryMetricsStatistics sideWorkStarted(SharedSessionContractImplementor session) {
+        QueryMetricsStatistics statistics = QueryMetricsStatistics.of(session);
+        if (statistics != null) {
+            statistics.sideWorkStarted();
+        }
+        return statistics;
+    }
+
+    static void sideWorkFinished(QueryMetricsStatistics statistics) {
+        if (statistics != null) {
+            statistics.sideWorkFinished();
+        }
+    }
+
+    private static void trackEnhancedProxy(Object entity, SharedSessionContractImplementor session) {
+        if (!(entity instanceof PersistentAttributeInterceptable)) {
+            return;
+        }
+        PersistentAttributeInterceptable interceptable = (PersistentAttributeInterceptable) entity;
+        PersistentAttributeInterceptor interceptor = interceptable.$$_hibernate_getInterceptor();
+        if (!(interceptor instanceof EnhancementAsProxyLazinessInterceptor) || interceptor instanceof Tracking) {
+            return;
+        }
+        EnhancementAsProxyLazinessInterceptor proxyInterceptor = (EnhancementAsProxyLazinessInterceptor) interceptor;
+        if (proxyInterceptor.isInitialized() || proxyInterceptor.isInitializing()) {
+            return;
+        }
+        EntityKey key = proxyInterceptor.getEntityKey();
+        EntityPersister persister = key.getPersister();
+        if (persister.getIdentifierType().isComponentType()) {
+            return;
+        }
+        interceptable.$$_hibernate_setInterceptor(new Tracking(key.getEntityName(),
+                Collections.singleton(persister.getIdentifierPropertyName()), key, session));
+    }
+
+    /**
+     * 향상된 엔티티를 프록시로 쓸 때의 인터셉터 + 초기화 구간 기록 (하이버네이트가 만든 것과 같은 인자로 생성)
+     */
+    static class Tracking extends EnhancementAsProxyLazinessInterceptor {
+
+        Tracking(String entityName, Set<String> identifierAttributeNames, EntityKey entityKey,
+                 SharedSessionContractImplementor session) {
+            super(entityName, identifierAttributeNames, null, entityKey, session);
+        }
+
+        @Override
+        public Object forceInitialize(Object target, String attributeName, SharedSessionContractImplementor session,
+                                      boolean isTemporarySession) {
+            QueryMetricsStatistics statistics = lazyLoadStarted(session, getEntityName());
+            try {
+                return super.forceInitialize(target, attributeName, session, isTemporarySession);
+            } finally {
+                lazyLoadFinished(statistics);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package jpql.monitor;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import javax.management.ObjectName;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hibernate.jpa.AvailableSettings.PERSISTENCE_UNIT_NAME;
+
+/**
+ * 모니터링용 이벤트 리스너, MBean 등록
+ * - persistence.xml 의 hibernate.integrator_provider(MonitoringIntegratorProvider)로 등록
+ * - 통계가 켜져 있으면 쿼리 지표를 JMX 로 노출한다. (JPQL 별 지표는 hibernate.stats.factory = QueryMetricsStatisticsFactory 일 때)
+ */
+public class MonitoringIntegrator implements Integrator {
+
+    /**
+     * 세션 팩토리 UUID -> 등록한 MBean 이름 (종료 시점에는 세션 팩토리 설정을 조회할 수 없음)
+     */
+    private final Map<String, ObjectName> mbeanNames = new ConcurrentHashMap<>();
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+
+        // 기본 리스너를 지연 로딩 구간을 기록하는 리스너로 감싼다.
+        registry.setListeners(EventType.INIT_COLLECTION, new LazyLoadListeners.InitializeCollection());
+        registry.setListeners(EventType.LOAD, new LazyLoadListeners.Load());
+        // flush 구간, 쿼리 시작 시점을 QueryMetricsStatistics 에 알린다.
+        registry.setListeners(EventType.AUTO_FLUSH, new FlushListeners.AutoFlush());
+        registry.setListeners(EventType.FLUSH, new FlushListeners.Flush());
+
+        ObjectName mbeanName = objectName(sessionFactory);
+        mbeanNames.put(sessionFactory.getUuid(), mbeanName);
+        QueryMetricsJmx.register(sessionFactory, mbeanName);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        ObjectName mbeanName = mbeanNames.remove(sessionFactory.getUuid());
+        if (mbeanName != null) {
+            QueryMetricsJmx.unregister(mbeanName);
+        }
+    }
+
+    private static ObjectName objectName(SessionFactoryImplementor sessionFactory) {
+        Object unitName = sessionFactory.getProperties().get(PERSISTENCE_UNIT_NAME);
+        return QueryMetricsJmx.objectName(unitName == null ? "default" : unitName.toString(), sessionFactory.getUuid());
+    }
+}
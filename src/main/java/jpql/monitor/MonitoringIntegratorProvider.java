@@ -0,0 +1,15 @@
+package jpql.monitor;
+
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+
+import java.util.Collections;
+import java.util.List;
+
+public class MonitoringIntegratorProvider implements IntegratorProvider {
+
+    @Override
+    public List<Integrator> getIntegrators() {
+        return Collections.singletonList(new MonitoringIntegrator());
+    }
+}
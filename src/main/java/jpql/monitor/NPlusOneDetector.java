@@ -0,0 +1,147 @@
+package jpql.monitor;
+
+import org.jboss.logging.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * N+1 문제 감지기
+ * - 작업 단위(UnitOfWork) 안에서 실행된 SQL 수와, 지연 로딩 때문에 실행된 SQL을 연관관계 경로별로 센다.
+ *   -> 컬렉션 : 컬렉션 역할 이름 (ex: jpql.Team.members)
+ *   -> 프록시 : 엔티티 이름 (ex: jpql.Team, Member.team 프록시 초기화)
+ * - 같은 경로의 지연 로딩 SQL이 threshold 번 이상 실행되면 N+1 로 판단한다.
+ * - 배치 페치(default_batch_fetch_size)나 2차 캐시로 SQL 없이 초기화된 경우는 세지 않는다.
+ *
+ * 사용법
+ *   try (NPlusOneDetector.UnitOfWork uow = NPlusOneDetector.begin(NPlusOneDetector.Mode.FAIL)) {
+ *       List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+ *       members.forEach(m -> m.getTeam().getName());
+ *   } // 종료 시점에 검사 -> LOG : 경고 로그, FAIL : NPlusOneException
+ *
+ * 참고 : 작업 단위는 스레드 단위로 관리된다. (EntityManager 를 스레드간에 공유하지 않으므로)
+ */
+public final class NPlusOneDetector {
+
+    public static final int DEFAULT_THRESHOLD = 3;
+
+    private static final Logger log = Logger.getLogger(NPlusOneDetector.class);
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 이미 초기화된 컬렉션처럼 SQL이 필요 없는 로딩 구간
+     */
+    private static final String NOT_LAZY = "";
+
+    public enum Mode {
+        LOG, FAIL
+    }
+
+    private NPlusOneDetector() {
+    }
+
+    public static UnitOfWork begin() {
+        return begin(Mode.LOG, DEFAULT_THRESHOLD);
+    }
+
+    public static UnitOfWork begin(Mode mode) {
+        return begin(mode, DEFAULT_THRESHOLD);
+    }
+
+    public static UnitOfWork begin(Mode mode, int threshold) {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("이미 진행 중인 작업 단위가 있습니다.");
+        }
+        UnitOfWork unitOfWork = new UnitOfWork(mode, threshold);
+        CURRENT.set(unitOfWork);
+        return unitOfWork;
+    }
+
+    static void statementPrepared(String sql) {
+        UnitOfWork unitOfWork = CURRENT.get();
+        if (unitOfWork != null) {
+            unitOfWork.statementPrepared();
+        }
+    }
+
+    static void lazyLoadStarted(String path) {
+        UnitOfWork unitOfWork = CURRENT.get();
+        if (unitOfWork != null) {
+            unitOfWork.loading.push(path == null ? NOT_LAZY : path);
+        }
+    }
+
+    static void lazyLoadFinished() {
+        UnitOfWork unitOfWork = CURRENT.get();
+        if (unitOfWork != null && !unitOfWork.loading.isEmpty()) {
+            unitOfWork.loading.pop();
+        }
+    }
+
+    public static final class UnitOfWork implements AutoCloseable {
+
+        private final Mode mode;
+        private final int threshold;
+
+        private final Deque<String> loading = new ArrayDeque<>();
+        private final Map<String, Integer> lazyLoadStatements = new LinkedHashMap<>();
+        private int statementCount;
+
+        private UnitOfWork(Mode mode, int threshold) {
+            this.mode = mode;
+            this.threshold = threshold;
+        }
+
+        private void statementPrepared() {
+            statementCount++;
+            // 지연 로딩 중에 다른 지연 로딩이 일어나면 처음 시작한 경로의 비용으로 본다.
+            String path = loading.peekLast();
+            if (path != null && !NOT_LAZY.equals(path)) {
+                lazyLoadStatements.merge(path, 1, Integer::sum);
+            }
+        }
+
+        public int getStatementCount() {
+            return statementCount;
+        }
+
+        /**
+         * @return 연관관계 경로 -> 지연 로딩으로 실행된 SQL 수
+         */
+        public Map<String, Integer> getLazyLoadStatements() {
+            return Collections.unmodifiableMap(lazyLoadStatements);
+        }
+
+        /**
+         * @return N+1 로 판단된 경로 -> SQL 수
+         */
+        public Map<String, Integer> getSuspects() {
+            Map<String, Integer> suspects = new LinkedHashMap<>();
+            lazyLoadStatements.forEach((path, count) -> {
+                if (count >= threshold) {
+                    suspects.put(path, count);
+                }
+            });
+            return suspects;
+        }
+
+        @Override
+        public void close() {
+            CURRENT.remove();
+
+            Map<String, Integer> suspects = getSuspects();
+            if (suspects.isEmpty()) {
+                return;
+            }
+            String message = "N+1 의심 : " + suspects + " (전체 SQL " + statementCount + "건, 임계치 " + threshold + ")";
+            if (mode == Mode.FAIL) {
+                throw new NPlusOneException(message);
+            }
+            log.warn(message);
+        }
+    }
+}
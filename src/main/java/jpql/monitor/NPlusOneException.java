@@ -0,0 +1,11 @@
+package jpql.monitor;
+
+/**
+ * 같은 연관관계의 지연 로딩 쿼리가 임계치 이상 실행됐을 때 (NPlusOneDetector.Mode.FAIL)
+ */
+public class NPlusOneException extends RuntimeException {
+
+    public NPlusOneException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package jpql.monitor;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 실행되는 모든 SQL을 현재 작업 단위(NPlusOneDetector.UnitOfWork)에 기록한다.
+ * - persistence.xml 의 hibernate.session_factory.statement_inspector 로 등록
+ * - SQL은 변경하지 않고 그대로 반환한다.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        NPlusOneDetector.statementPrepared(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,83 @@
+package jpql.monitor;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * 쿼리 하나의 측정값 (지연 시간 단위 : 마이크로초)
+ */
+public class QueryMetricSnapshot {
+
+    private final String query;
+    private final long executionCount;
+    private final long rowsFetched;
+    private final long entitiesLoaded;
+    private final double meanMicros;
+    private final long p50Micros;
+    private final long p90Micros;
+    private final long p99Micros;
+    private final long maxMicros;
+
+    @ConstructorProperties({"query", "executionCount", "rowsFetched", "entitiesLoaded",
+            "meanMicros", "p50Micros", "p90Micros", "p99Micros", "maxMicros"})
+    public QueryMetricSnapshot(String query, long executionCount, long rowsFetched, long entitiesLoaded,
+                               double meanMicros, long p50Micros, long p90Micros, long p99Micros, long maxMicros) {
+        this.query = query;
+        this.executionCount = executionCount;
+        this.rowsFetched = rowsFetched;
+        this.entitiesLoaded = entitiesLoaded;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p90Micros = p90Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public long getExecutionCount() {
+        return executionCount;
+    }
+
+    public long getRowsFetched() {
+        return rowsFetched;
+    }
+
+    public long getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP90Micros() {
+        return p90Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryMetricSnapshot{" +
+                "query='" + query + '\'' +
+                ", executionCount=" + executionCount +
+                ", rowsFetched=" + rowsFetched +
+                ", entitiesLoaded=" + entitiesLoaded +
+                ", p50Micros=" + p50Micros +
+                ", p99Micros=" + p99Micros +
+                ", maxMicros=" + maxMicros +
+                '}';
+    }
+}
@@ -0,0 +1,69 @@
+package jpql.monitor;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JPQL 별 실행 횟수, 지연 시간 히스토그램(마이크로초), 조회 행 수, 로딩 엔티티 수
+ */
+public class QueryMetrics {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, QueryMetric> metrics = new ConcurrentHashMap<>();
+
+    void record(String jpql, long elapsedNanos, int rows, int entitiesLoaded) {
+        metrics.computeIfAbsent(jpql, key -> new QueryMetric())
+                .record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), rows, entitiesLoaded);
+    }
+
+    public List<QueryMetricSnapshot> snapshot() {
+        List<QueryMetricSnapshot> snapshots = new ArrayList<>(metrics.size());
+        metrics.forEach((jpql, metric) -> snapshots.add(metric.snapshot(jpql)));
+        snapshots.sort((a, b) -> Long.compare(b.getExecutionCount(), a.getExecutionCount()));
+        return snapshots;
+    }
+
+    public QueryMetricSnapshot snapshot(String jpql) {
+        QueryMetric metric = metrics.get(jpql);
+        return metric == null ? null : metric.snapshot(jpql);
+    }
+
+    public void clear() {
+        metrics.clear();
+    }
+
+    private static class QueryMetric {
+
+        private final Histogram latencyMicros = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder entitiesLoaded = new LongAdder();
+
+        void record(long micros, int rows, int entitiesLoaded) {
+            latencyMicros.recordValue(micros);
+            this.rows.add(rows);
+            this.entitiesLoaded.add(entitiesLoaded);
+        }
+
+        QueryMetricSnapshot snapshot(String jpql) {
+            Histogram histogram = latencyMicros.copy();
+            return new QueryMetricSnapshot(
+                    jpql,
+                    histogram.getTotalCount(),
+                    rows.sum(),
+                    entitiesLoaded.sum(),
+                    histogram.getMean(),
+                    histogram.getValueAtPercentile(50),
+                    histogram.getValueAtPercentile(90),
+                    histogram.getValueAtPercentile(99),
+                    histogram.getMaxValue());
+        }
+    }
+}
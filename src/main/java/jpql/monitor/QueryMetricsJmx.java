@@ -0,0 +1,97 @@
+package jpql.monitor;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * QueryMetricsMXBean 구현 + 플랫폼 MBeanServer 등록/해제
+ * - MonitoringIntegrator 가 세션 팩토리 생성 시 등록하고, 종료 시 해제한다.
+ * - 통계 객체는 메타모델이 만들어진 뒤에 생성되어야 하므로 조회 시점에 가져온다.
+ */
+public class QueryMetricsJmx implements QueryMetricsMXBean {
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    public QueryMetricsJmx(SessionFactoryImplementor sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public List<QueryMetricSnapshot> getQueries() {
+        Statistics statistics = statistics();
+        if (!(statistics instanceof QueryMetricsStatistics)) {
+            return Collections.emptyList();
+        }
+        return ((QueryMetricsStatistics) statistics).getQueryMetrics().snapshot();
+    }
+
+    @Override
+    public Map<String, Long> getEntityLoadCounts() {
+        Statistics statistics = statistics();
+        Map<String, Long> counts = new TreeMap<>();
+        for (String entityName : statistics.getEntityNames()) {
+            counts.put(entityName, statistics.getEntityStatistics(entityName).getLoadCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public long getQueryExecutionCount() {
+        return statistics().getQueryExecutionCount();
+    }
+
+    @Override
+    public long getPrepareStatementCount() {
+        return statistics().getPrepareStatementCount();
+    }
+
+    @Override
+    public void reset() {
+        statistics().clear();
+    }
+
+    private Statistics statistics() {
+        return sessionFactory.getStatistics();
+    }
+
+    public static ObjectName objectName(String unitName, String sessionFactoryId) {
+        try {
+            return new ObjectName("jpql.monitor:type=QueryMetrics,unit=" + ObjectName.quote(unitName)
+                    + ",id=" + ObjectName.quote(sessionFactoryId));
+        } catch (JMException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    static void register(SessionFactoryImplementor sessionFactory, ObjectName name) {
+        if (!sessionFactory.getSessionFactoryOptions().isStatisticsEnabled()) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new QueryMetricsJmx(sessionFactory), name);
+        } catch (JMException e) {
+            throw new IllegalStateException("QueryMetrics MBean 등록 실패 : " + name, e);
+        }
+    }
+
+    static void unregister(ObjectName name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(name);
+        } catch (InstanceNotFoundException e) {
+            // 통계를 끈 경우 등록되지 않음
+        } catch (JMException e) {
+            throw new IllegalStateException("QueryMetrics MBean 해제 실패 : " + name, e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package jpql.monitor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JMX 노출 인터페이스 (jconsole, VisualVM 등에서 조회)
+ * - ObjectName : jpql.monitor:type=QueryMetrics,unit={영속성 유닛},id={세션 팩토리 UUID}
+ */
+public interface QueryMetricsMXBean {
+
+    List<QueryMetricSnapshot> getQueries();
+
+    /**
+     * @return 엔티티 이름 -> 로딩 횟수 (쿼리, em.find, 지연 로딩 모두 포함)
+     */
+    Map<String, Long> getEntityLoadCounts();
+
+    long getQueryExecutionCount();
+
+    long getPrepareStatementCount();
+
+    void reset();
+}
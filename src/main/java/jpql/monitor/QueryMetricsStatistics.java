@@ -0,0 +1,144 @@
+package jpql.monitor;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 하이버네이트 통계 + JPQL 별 지연 시간 히스토그램
+ * - 하이버네이트 기본 통계(QueryStatistics)는 실행 시간을 밀리초 단위로만 기록한다. (queryExecuted 의 time, 소수점 버림)
+ * - 하이버네이트는 쿼리 실행(SQL 실행 + 결과 엔티티 생성)을 재서 queryExecuted 로 넘겨주므로, 그 구간을 나노초로 다시 잰다.
+ *   -> 스레드별로 statement 준비(prepareStatement) 시점과 그때까지 생성된 엔티티 수를 남긴다.
+ *   -> 쿼리가 아닌 statement 는 남기지 않는다. (MonitoringIntegrator 의 리스너가 구간을 알려줌)
+ *      flush(명시적 flush, 커밋), 엔티티 로딩(em.find, 프록시/지연 로딩), 컬렉션 초기화
+ *   -> 쿼리 시작 : 트랜잭션 안에서는 쿼리 실행 직전에 자동 flush 이벤트가 오므로 그때 스레드 기록을 지운다.
+ *      그 뒤 처음 준비되는 statement 가 쿼리 자신의 것이다.
+ *   -> queryExecuted 에서 하이버네이트가 잰 구간(time + 1ms, 버림 오차) 안의 가장 이른 준비 시점부터의 시간과
+ *      생성된 엔티티 수(loadEntity)를 기록한다. 구간 안에 준비 시점이 없으면 하이버네이트 값(밀리초)을 기록한다.
+ *   -> 쿼리를 만든 시점이나 다른 쿼리와는 무관하므로, 여러 쿼리를 만들어 두고 섞어 실행하거나 실행이 실패해도 다음 기록에 영향이 없다.
+ *   -> 남는 오차 : 트랜잭션 밖(자동 flush 이벤트 없음)에서 위 리스너를 거치지 않는 statement(네이티브 SQL 로 직접 변경 등)가
+ *      쿼리 직전 1ms 안에 있으면 그만큼 길게 잡힌다.
+ * - queryExecuted 에서 스레드 기록을 지운다. 쿼리 없이 쌓이는 준비 시점은 MAX_MARKS 개까지만 남긴다.
+ * - 쿼리 캐시에서 결과를 가져온 경우 queryExecuted 가 호출되지 않으므로 기록하지 않는다.
+ */
+public class QueryMetricsStatistics extends StatisticsImpl {
+
+    private static final int MAX_MARKS = 1_024;
+
+    private final QueryMetrics queryMetrics = new QueryMetrics();
+
+    private final ThreadLocal<Marks> marks = ThreadLocal.withInitial(Marks::new);
+
+    /**
+     * 쿼리가 아닌 statement 를 실행하는 구간의 중첩 깊이 (구간 밖이면 없음)
+     */
+    private final ThreadLocal<int[]> sideWork = new ThreadLocal<>();
+
+    public QueryMetricsStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+    }
+
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    /**
+     * @return 세션 팩토리 통계가 QueryMetricsStatistics 가 아니면 null
+     */
+    static QueryMetricsStatistics of(SharedSessionContractImplementor session) {
+        Object statistics = session.getFactory().getStatistics();
+        return statistics instanceof QueryMetricsStatistics ? (QueryMetricsStatistics) statistics : null;
+    }
+
+    /**
+     * 쿼리 실행 직전 (자동 flush 이후)
+     */
+    void queryStarting() {
+        marks.remove();
+    }
+
+    void sideWorkStarted() {
+        int[] depth = sideWork.get();
+        if (depth == null) {
+            sideWork.set(new int[]{1});
+        } else {
+            depth[0]++;
+        }
+    }
+
+    void sideWorkFinished() {
+        int[] depth = sideWork.get();
+        if (depth != null && --depth[0] <= 0) {
+            sideWork.remove();
+        }
+    }
+
+    @Override
+    public void prepareStatement() {
+        super.prepareStatement();
+        if (isStatisticsEnabled() && sideWork.get() == null) {
+            marks.get().prepared(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void loadEntity(String entityName) {
+        super.loadEntity(entityName);
+        if (isStatisticsEnabled()) {
+            marks.get().entitiesLoaded++;
+        }
+    }
+
+    @Override
+    public void queryExecuted(String hql, int rows, long time) {
+        super.queryExecuted(hql, rows, time);
+        long now = System.nanoTime();
+        Marks executions = marks.get();
+        marks.remove();
+
+        long windowStart = now - TimeUnit.MILLISECONDS.toNanos(time + 1);
+        for (int i = 0; i < executions.size; i++) {
+            if (executions.preparedNanos[i] >= windowStart) {
+                queryMetrics.record(hql, now - executions.preparedNanos[i], rows,
+                        executions.entitiesLoaded - executions.entitiesLoadedAt[i]);
+                return;
+            }
+        }
+        queryMetrics.record(hql, TimeUnit.MILLISECONDS.toNanos(time), rows, 0);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        // 상위 클래스 생성자에서도 호출되므로 필드 초기화 전일 수 있다.
+        if (queryMetrics != null) {
+            queryMetrics.clear();
+        }
+    }
+
+    /**
+     * 스레드의 statement 준비 시점 (오래된 순)
+     */
+    private static class Marks {
+
+        private final long[] preparedNanos = new long[MAX_MARKS];
+        private final int[] entitiesLoadedAt = new int[MAX_MARKS];
+        private int size;
+        private int entitiesLoaded;
+
+        void prepared(long nanos) {
+            if (size == MAX_MARKS) {
+                // 가장 최근 절반만 남긴다.
+                int keep = MAX_MARKS / 2;
+                System.arraycopy(preparedNanos, size - keep, preparedNanos, 0, keep);
+                System.arraycopy(entitiesLoadedAt, size - keep, entitiesLoadedAt, 0, keep);
+                size = keep;
+            }
+            preparedNanos[size] = nanos;
+            entitiesLoadedAt[size] = entitiesLoaded;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package jpql.monitor;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/**
+ * persistence.xml 의 hibernate.stats.factory 로 등록
+ */
+public class QueryMetricsStatisticsFactory implements StatisticsFactory {
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        return new QueryMetricsStatistics(sessionFactory);
+    }
+}
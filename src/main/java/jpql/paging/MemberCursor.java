@@ -0,0 +1,69 @@
+package jpql.paging;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋 페이징 커서 : 이전 페이지 마지막 회원의 (정렬 기준, id, 정렬 값)
+ * - 클라이언트에는 Base64(URL safe) 문자열로만 전달하므로 내부 형식을 바꿔도 API는 그대로 유지된다.
+ * - 정렬 값에 구분자가 들어 있을 수 있으므로 마지막 필드로 둔다.
+ * - 정렬 값은 NULL 과 문자열 "null" 을 구분하도록 접두어를 붙인다. (NULL : "N", 값 : "V" + 값)
+ */
+final class MemberCursor {
+
+    private static final String SEPARATOR = "|";
+    private static final String NULL_VALUE = "N";
+    private static final String VALUE_PREFIX = "V";
+
+    private final MemberSort sort;
+    private final long id;
+    private final Object value;
+
+    MemberCursor(MemberSort sort, long id, Object value) {
+        this.sort = sort;
+        this.id = id;
+        this.value = value;
+    }
+
+    MemberSort getSort() {
+        return sort;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    Object getValue() {
+        return value;
+    }
+
+    String encode() {
+        String raw = sort.name() + SEPARATOR + id + SEPARATOR + (value == null ? NULL_VALUE : VALUE_PREFIX + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static MemberCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] fields = raw.split("\\|", 3);
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("잘못된 커서입니다. : " + cursor);
+            }
+            MemberSort sort = MemberSort.valueOf(fields[0]);
+            return new MemberCursor(sort, Long.parseLong(fields[1]), decodeValue(sort, fields[2], cursor));
+        } catch (IllegalArgumentException e) {
+            // Base64, 숫자 형식, 정렬 기준 오류 모두 IllegalArgumentException 계열
+            throw new IllegalArgumentException("잘못된 커서입니다. : " + cursor, e);
+        }
+    }
+
+    private static Object decodeValue(MemberSort sort, String field, String cursor) {
+        if (NULL_VALUE.equals(field)) {
+            return null;
+        }
+        if (!field.startsWith(VALUE_PREFIX)) {
+            throw new IllegalArgumentException("잘못된 커서입니다. : " + cursor);
+        }
+        return sort.parse(field.substring(VALUE_PREFIX.length()));
+    }
+}
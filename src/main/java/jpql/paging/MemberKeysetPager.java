@@ -0,0 +1,82 @@
+package jpql.paging;
+
+import jpql.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * 회원 목록 키셋(seek) 페이징
+ * - setFirstResult(offset) 페이징은 DB가 앞의 offset 행을 모두 읽고 버리므로 뒤 페이지일수록 느려진다.
+ * - 키셋 페이징은 이전 페이지의 마지막 (정렬 값, id) 다음부터 읽으므로 인덱스 탐색 한번 + 페이지 크기만큼만 읽는다.
+ *   -> JPQL : select m from Member m
+ *             where m.age >= :value and (m.age > :value or m.id > :id)
+ *             order by m.age nulls first, m.id
+ *   -> m.age >= :value 조건이 (age, id) 인덱스의 탐색 시작 위치가 된다.
+ *   -> 정렬 값이 NULL 인 행은 맨 앞에 오므로 위 조건에서 빠지는 것이 맞다.
+ *      마지막 회원의 정렬 값이 NULL 이면 남은 NULL 행과 NULL 이 아닌 행 모두를 읽는다.
+ *      where (m.username is null and m.id > :id) or m.username is not null
+ * - 페이지 크기 + 1 건을 조회해서 다음 페이지가 있는지 판단한다. (count 쿼리 없음)
+ *
+ * 사용법
+ *   MemberPage page = pager.first(MemberSort.AGE, 20);
+ *   while (page.hasNext()) {
+ *       page = pager.next(page.getNextCursor(), 20);
+ *   }
+ *
+ * 한계
+ * - 임의의 페이지 번호로 바로 이동할 수 없다. (다음 페이지로만 이동)
+ * - 정렬 값이 바뀐 회원은 페이지 사이에서 빠지거나 중복될 수 있다. (오프셋 페이징도 마찬가지)
+ */
+public class MemberKeysetPager {
+
+    private final EntityManager em;
+
+    public MemberKeysetPager(EntityManager em) {
+        this.em = em;
+    }
+
+    public MemberPage first(MemberSort sort, int size) {
+        TypedQuery<Member> query = em.createQuery(
+                "select m from Member m order by " + sort.orderBy(), Member.class);
+        return fetch(sort, query, size);
+    }
+
+    public MemberPage next(String cursor, int size) {
+        MemberCursor decoded = MemberCursor.decode(cursor);
+        MemberSort sort = decoded.getSort();
+        String path = sort.path();
+
+        if (decoded.getValue() == null) {
+            TypedQuery<Member> query = em.createQuery(
+                    "select m from Member m" +
+                            " where (" + path + " is null and m.id > :id) or " + path + " is not null" +
+                            " order by " + sort.orderBy(), Member.class)
+                    .setParameter("id", decoded.getId());
+            return fetch(sort, query, size);
+        }
+
+        TypedQuery<Member> query = em.createQuery(
+                "select m from Member m" +
+                        " where " + path + " >= :value and (" + path + " > :value or m.id > :id)" +
+                        " order by " + sort.orderBy(), Member.class)
+                .setParameter("value", decoded.getValue())
+                .setParameter("id", decoded.getId());
+        return fetch(sort, query, size);
+    }
+
+    private MemberPage fetch(MemberSort sort, TypedQuery<Member> query, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("페이지 크기는 0보다 커야 합니다. : " + size);
+        }
+        List<Member> result = query.setMaxResults(size + 1).getResultList();
+        if (result.size() <= size) {
+            return new MemberPage(result, null);
+        }
+
+        List<Member> content = result.subList(0, size);
+        Member last = content.get(size - 1);
+        return new MemberPage(content, new MemberCursor(sort, last.getId(), sort.valueOf(last)).encode());
+    }
+}
@@ -0,0 +1,32 @@
+package jpql.paging;
+
+import jpql.Member;
+
+import java.util.List;
+
+/**
+ * 키셋 페이징 결과
+ * - nextCursor : 다음 페이지 조회용 커서, 마지막 페이지면 null
+ */
+public class MemberPage {
+
+    private final List<Member> content;
+    private final String nextCursor;
+
+    public MemberPage(List<Member> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Member> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,52 @@
+package jpql.paging;
+
+import jpql.Member;
+
+import java.util.function.Function;
+
+/**
+ * 키셋 페이징 정렬 기준
+ * - 정렬 값이 같은 회원이 여러 명일 수 있으므로 항상 식별자(id)를 두 번째 정렬 기준으로 사용한다.
+ * - 정렬 값이 NULL 인 회원(username)은 맨 앞에 온다. (nulls first, H2 는 이 순서 그대로 인덱스 정렬을 사용)
+ * - 각 정렬 기준은 (정렬 컬럼, id) 인덱스가 있어야 페이지 깊이와 관계없이 일정한 시간에 조회된다. (Member @Table 참고)
+ */
+public enum MemberSort {
+
+    AGE("m.age", Member::getAge) {
+        @Override
+        Object parse(String value) {
+            return Integer.valueOf(value);
+        }
+    },
+    USERNAME("m.username", Member::getUsername) {
+        @Override
+        Object parse(String value) {
+            return value;
+        }
+    };
+
+    private final String path;
+    private final Function<Member, Object> extractor;
+
+    MemberSort(String path, Function<Member, Object> extractor) {
+        this.path = path;
+        this.extractor = extractor;
+    }
+
+    String path() {
+        return path;
+    }
+
+    String orderBy() {
+        return path + " nulls first, m.id";
+    }
+
+    Object valueOf(Member member) {
+        return extractor.apply(member);
+    }
+
+    /**
+     * 커서에 문자열로 저장된 정렬 값을 원래 타입으로 복원
+     */
+    abstract Object parse(String value);
+}
@@ -0,0 +1,79 @@
+package jpql.paging;
+
+import jpql.Team;
+import org.hibernate.jpa.QueryHints;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 팀 + 회원 컬렉션 페이징 (2단계 조회)
+ * - select t from Team t join fetch t.members 에 페이징을 적용하면 SQL에 LIMIT 을 붙일 수 없어서
+ *   하이버네이트가 전체 결과를 메모리에 올린 뒤 페이징한다. (팀 수 x 회원 수 만큼 힙 사용)
+ *   -> persistence.xml 에 hibernate.query.fail_on_pagination_over_collection_fetch=true 를 설정해서
+ *      이런 쿼리는 경고 대신 예외가 발생하도록 했다.
+ * - 1단계 : 팀 식별자만 SQL로 페이징해서 조회
+ * - 2단계 : 그 식별자들의 팀을 회원과 함께 페치 조인으로 조회
+ *   -> 페이지당 SQL 2번, 메모리는 페이지 크기만큼만 사용
+ *
+ * 참고
+ * - 2단계 쿼리의 distinct 는 엔티티 중복 제거용이므로 SQL에는 전달하지 않는다. (PASS_DISTINCT_THROUGH)
+ * - 회원이 없는 팀도 페이지에 포함되도록 left join fetch 를 사용한다.
+ */
+public class TeamMembersPager {
+
+    private final EntityManager em;
+
+    public TeamMembersPager(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * @param page 0부터 시작
+     * @throws IllegalArgumentException page * size 가 int 범위를 넘는 경우 (오프셋이 음수로 넘어가지 않도록)
+     * @return 팀 식별자 순으로 정렬된 팀 목록 (members 초기화됨)
+     */
+    public List<Team> page(int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException("page 는 0 이상, size 는 0보다 커야 합니다.");
+        }
+        int offset;
+        try {
+            offset = Math.multiplyExact(page, size);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("page * size 가 너무 큽니다. : " + page + " * " + size, e);
+        }
+        List<Long> teamIds = em.createQuery("select t.id from Team t order by t.id", Long.class)
+                .setFirstResult(offset)
+                .setMaxResults(size)
+                .getResultList();
+        return fetchWithMembers(teamIds);
+    }
+
+    /**
+     * 식별자 다음 팀부터 size 개 조회 (키셋 방식, 페이지가 깊어도 일정한 비용)
+     */
+    public List<Team> after(Long lastTeamId, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size 는 0보다 커야 합니다.");
+        }
+        List<Long> teamIds = em.createQuery("select t.id from Team t where t.id > :lastId order by t.id", Long.class)
+                .setParameter("lastId", lastTeamId)
+                .setMaxResults(size)
+                .getResultList();
+        return fetchWithMembers(teamIds);
+    }
+
+    private List<Team> fetchWithMembers(List<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return em.createQuery(
+                "select distinct t from Team t left join fetch t.members" +
+                        " where t.id in :teamIds order by t.id", Team.class)
+                .setParameter("teamIds", teamIds)
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                .getResultList();
+    }
+}
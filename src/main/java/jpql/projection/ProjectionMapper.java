@@ -0,0 +1,228 @@
+package jpql.projection;
+
+import javax.persistence.Tuple;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * JPQL/Criteria 조회 결과(Object[], Tuple)를 DTO로 변환하는 매퍼
+ * - select new jpql.MemberDTO(m.username, m.age) 는 행마다 리플렉션(Constructor.newInstance)으로 DTO를 생성한다.
+ * - 생성자, setter 를 LambdaMetafactory 로 일반 인터페이스 구현체(람다)로 만들어 두고 호출한다.
+ *   -> 직접 new MemberDTO(...) 를 호출하는 것과 같은 바이트코드, JIT 인라이닝 가능
+ * - 매퍼는 DTO 타입마다 한번 만들어서 재사용한다. (생성 비용이 크고, 스레드 안전함)
+ *
+ * 사용법
+ *   ProjectionMapper<MemberDTO> mapper = ProjectionMapper.of(MemberDTO.class, String.class, int.class)
+ *           .withProperties("username", "age");
+ *
+ *   // 1. 조회 결과 변환
+ *   mapper.mapAll(em.createQuery("select m.username, m.age from Member m", Object[].class).getResultList());
+ *   // 스트리밍 : query.getResultStream().map(mapper::map)
+ *
+ *   // 2. 스트리밍 : DTO 하나를 재사용 (MemberStreamer.forEachMemberDTOReusing)
+ *   mapper.mapInto(row, buffer);
+ *
+ * 참고
+ * - 생성자 파라미터가 MAX_LAMBDA_ARITY 개를 넘으면 MethodHandle 로 호출한다. (람다보다 느림)
+ * - DTO 생성자, setter 는 public 이어야 한다.
+ * - 하이버네이트 Query.setResultTransformer() 는 5.2부터 deprecated 이므로 조회 결과(Object[])를 직접 변환한다.
+ */
+public final class ProjectionMapper<T> {
+
+    public static final int MAX_LAMBDA_ARITY = 5;
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private final Class<T> type;
+    private final Class<?>[] columnTypes;
+    private final RowFactory<T> factory;
+    private final BiConsumer<T, Object>[] setters;
+
+    private ProjectionMapper(Class<T> type, Class<?>[] columnTypes, RowFactory<T> factory, BiConsumer<T, Object>[] setters) {
+        this.type = type;
+        this.columnTypes = columnTypes;
+        this.factory = factory;
+        this.setters = setters;
+    }
+
+    /**
+     * @param columnTypes 조회 컬럼 순서대로의 생성자 파라미터 타입
+     */
+    public static <T> ProjectionMapper<T> of(Class<T> type, Class<?>... columnTypes) {
+        MethodHandle constructor;
+        try {
+            constructor = LOOKUP.findConstructor(type, MethodType.methodType(void.class, columnTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(type.getName() + " 에 해당 생성자가 없습니다.", e);
+        }
+        return new ProjectionMapper<>(type, columnTypes.clone(), rowFactory(constructor), null);
+    }
+
+    /**
+     * mapInto 에서 사용할 setter 지정 (조회 컬럼 순서대로의 프로퍼티 이름)
+     */
+    @SuppressWarnings("unchecked")
+    public ProjectionMapper<T> withProperties(String... properties) {
+        if (properties.length != columnTypes.length) {
+            throw new IllegalArgumentException("프로퍼티 수가 컬럼 수와 다릅니다. : " + properties.length);
+        }
+        BiConsumer<T, Object>[] setters = new BiConsumer[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            setters[i] = setter(type, properties[i], columnTypes[i]);
+        }
+        return new ProjectionMapper<>(type, columnTypes, factory, setters);
+    }
+
+    public T map(Object[] row) {
+        return factory.create(row);
+    }
+
+    public T map(Tuple tuple) {
+        return factory.create(tuple.toArray());
+    }
+
+    /**
+     * 새 DTO를 만들지 않고 target 에 값을 덮어쓴다. (withProperties 필요)
+     */
+    public T mapInto(Object[] row, T target) {
+        if (setters == null) {
+            throw new IllegalStateException("withProperties()로 setter 를 먼저 지정해야 합니다.");
+        }
+        for (int i = 0; i < setters.length; i++) {
+            setters[i].accept(target, row[i]);
+        }
+        return target;
+    }
+
+    public List<T> mapAll(List<Object[]> rows) {
+        List<T> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(map(row));
+        }
+        return result;
+    }
+
+    // ===== LambdaMetafactory =====
+
+    @FunctionalInterface
+    private interface RowFactory<T> {
+        T create(Object[] row);
+    }
+
+    @FunctionalInterface
+    private interface Arity0 {
+        Object create();
+    }
+
+    @FunctionalInterface
+    private interface Arity1 {
+        Object create(Object a);
+    }
+
+    @FunctionalInterface
+    private interface Arity2 {
+        Object create(Object a, Object b);
+    }
+
+    @FunctionalInterface
+    private interface Arity3 {
+        Object create(Object a, Object b, Object c);
+    }
+
+    @FunctionalInterface
+    private interface Arity4 {
+        Object create(Object a, Object b, Object c, Object d);
+    }
+
+    @FunctionalInterface
+    private interface Arity5 {
+        Object create(Object a, Object b, Object c, Object d, Object e);
+    }
+
+    private static final Class<?>[] ARITY_INTERFACES = {
+            Arity0.class, Arity1.class, Arity2.class, Arity3.class, Arity4.class, Arity5.class
+    };
+
+    @SuppressWarnings("unchecked")
+    private static <T> RowFactory<T> rowFactory(MethodHandle constructor) {
+        int arity = constructor.type().parameterCount();
+        if (arity > MAX_LAMBDA_ARITY) {
+            MethodHandle spreader = constructor.asSpreader(Object[].class, arity)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return row -> {
+                try {
+                    return (T) spreader.invokeExact(row);
+                } catch (Throwable e) {
+                    throw new IllegalStateException("DTO 생성 실패", e);
+                }
+            };
+        }
+
+        Object lambda = lambda(ARITY_INTERFACES[arity], "create", constructor);
+        switch (arity) {
+            case 0: {
+                Arity0 create = (Arity0) lambda;
+                return row -> (T) create.create();
+            }
+            case 1: {
+                Arity1 create = (Arity1) lambda;
+                return row -> (T) create.create(row[0]);
+            }
+            case 2: {
+                Arity2 create = (Arity2) lambda;
+                return row -> (T) create.create(row[0], row[1]);
+            }
+            case 3: {
+                Arity3 create = (Arity3) lambda;
+                return row -> (T) create.create(row[0], row[1], row[2]);
+            }
+            case 4: {
+                Arity4 create = (Arity4) lambda;
+                return row -> (T) create.create(row[0], row[1], row[2], row[3]);
+            }
+            default: {
+                Arity5 create = (Arity5) lambda;
+                return row -> (T) create.create(row[0], row[1], row[2], row[3], row[4]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> BiConsumer<T, Object> setter(Class<T> type, String property, Class<?> propertyType) {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        try {
+            MethodHandle setter = LOOKUP.findVirtual(type, name, MethodType.methodType(void.class, propertyType));
+            return (BiConsumer<T, Object>) lambda(BiConsumer.class, "accept", setter);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(type.getName() + "." + name + "(" + propertyType.getName() + ") 가 없습니다.", e);
+        }
+    }
+
+    /**
+     * implementation 을 호출하는 functionalInterface 구현체 생성
+     * - 인터페이스 메서드는 모두 Object 타입이므로 캐스팅, 언박싱(Integer -> int)은 LambdaMetafactory 가 처리한다.
+     */
+    private static Object lambda(Class<?> functionalInterface, String methodName, MethodHandle implementation) {
+        MethodType implementationType = implementation.type();
+        MethodType instantiatedType = implementationType.wrap();
+        MethodType samType = instantiatedType.erase();
+        if (implementationType.returnType() == void.class) {
+            instantiatedType = instantiatedType.changeReturnType(void.class);
+            samType = samType.changeReturnType(void.class);
+        }
+        try {
+            MethodHandles.Lookup caller = MethodHandles.lookup();
+            CallSite site = LambdaMetafactory.metafactory(caller, methodName,
+                    MethodType.methodType(functionalInterface), samType, implementation, instantiatedType);
+            return site.getTarget().invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException(implementation + " 람다 생성 실패", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package jpql.report;
+
+/**
+ * 상품별 주문 수량 순위 (수량이 많은 주문이 1위, 같은 수량은 같은 순위)
+ */
+public class OrderAmountRank {
+
+    private final Long orderId;
+    private final String productName;
+    private final int orderAmount;
+    private final long rank;
+
+    public OrderAmountRank(Long orderId, String productName, int orderAmount, long rank) {
+        this.orderId = orderId;
+        this.productName = productName;
+        this.orderAmount = orderAmount;
+        this.rank = rank;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public int getOrderAmount() {
+        return orderAmount;
+    }
+
+    public long getRank() {
+        return rank;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderAmountRank{" +
+                "orderId=" + orderId +
+                ", productName='" + productName + '\'' +
+                ", orderAmount=" + orderAmount +
+                ", rank=" + rank +
+                '}';
+    }
+}
@@ -0,0 +1,94 @@
+package jpql.report;
+
+import jpql.Order;
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 주문(+ 상품) 조회 전용 리포트
+ * - 일반 EntityManager 로 조회하면 엔티티마다 변경 감지용 스냅샷(로딩 시점 값 복사본)과 EntityEntry 를 만들고,
+ *   트랜잭션 커밋/쿼리 실행 전에 flush 하면서 모든 엔티티를 스냅샷과 비교한다.
+ * - 리포트는 값을 바꾸지 않으므로 두 가지 방법으로 그 비용을 없앤다.
+ *
+ * 1. 읽기 전용 EntityManager : findOrders()
+ *   - 세션 기본값을 읽기 전용으로 두고(스냅샷 없음) flush 모드를 MANUAL 로 둔다. (자동 flush 없음)
+ *   - 조회하는 동안은 영속성 컨텍스트가 있으므로 같은 상품은 인스턴스 하나로 공유된다.
+ *   - 반환 전에 EntityManager 를 닫으므로 결과는 준영속 상태다.
+ *     -> 페치 조인한 product 만 사용할 수 있고, 그 밖의 지연 로딩은 LazyInitializationException 이 발생한다.
+ *   - 결과를 List 로 받으므로 화면 한 페이지 분량의 리포트에 사용
+ *
+ * 2. StatelessSession : forEachOrder()
+ *   - 영속성 컨텍스트, 2차 캐시, 이벤트 리스너를 거치지 않는다. (한 행 읽고 버림)
+ *   - 같은 상품이라도 행마다 새 인스턴스가 만들어지고, 지연 로딩은 할 수 없다. -> 필요한 연관관계는 페치 조인
+ *   - 전체 내보내기처럼 행 수가 많은 리포트에 사용
+ */
+public class OrderReportReader {
+
+    private static final String ORDERS_WITH_PRODUCT = "select o from Order o join fetch o.product order by o.id";
+
+    private final EntityManagerFactory emf;
+    private final int fetchSize;
+
+    public OrderReportReader(EntityManagerFactory emf) {
+        this(emf, 500);
+    }
+
+    public OrderReportReader(EntityManagerFactory emf, int fetchSize) {
+        this.emf = emf;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @return 준영속 상태의 주문 목록 (상품 초기화됨)
+     */
+    public List<Order> findOrders(int firstResult, int maxResults) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Session session = em.unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+
+            return em.createQuery(ORDERS_WITH_PRODUCT, Order.class)
+                    .setHint(QueryHints.HINT_READONLY, true)
+                    .setFirstResult(firstResult)
+                    .setMaxResults(maxResults)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * @return 처리한 주문 수
+     */
+    public long forEachOrder(Consumer<? super Order> action) {
+        StatelessSession session = emf.unwrap(SessionFactory.class).openStatelessSession();
+        try {
+            ScrollableResults results = session.createQuery(ORDERS_WITH_PRODUCT)
+                    .setFetchSize(fetchSize)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                long count = 0;
+                while (results.next()) {
+                    action.accept((Order) results.get(0));
+                    count++;
+                }
+                return count;
+            } finally {
+                results.close();
+            }
+        } finally {
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package jpql.report;
+
+import javax.persistence.EntityManager;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 팀/상품 단위 집계 리포트
+ * - 엔티티를 모두 조회해서 자바로 그룹핑, 정렬하지 않고 MyH2Dialect 에 등록한 집계/윈도우 함수로 SQL 한번에 계산한다.
+ *   -> 조회 행 수 = 결과 행 수 (팀 수, 주문 수), 영속성 컨텍스트에 엔티티가 쌓이지 않음
+ * - MyH2Dialect 를 사용하는 영속성 유닛에서만 동작한다.
+ */
+public class RollupReport {
+
+    private final EntityManager em;
+
+    public RollupReport(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * 팀별 나이 분포 (회원이 없는 팀은 제외), 팀 이름 순
+     */
+    public List<TeamAgeDistribution> teamAgeDistributions() {
+        return em.createQuery(
+                "select new jpql.report.TeamAgeDistribution(" +
+                        " t.name, count(m), min(m.age), max(m.age), avg(m.age)," +
+                        " percentile_cont(0.25, m.age), median(m.age)," +
+                        " percentile_cont(0.75, m.age), percentile_cont(0.9, m.age))" +
+                        " from Member m join m.team t" +
+                        " group by t.id, t.name" +
+                        " order by t.name", TeamAgeDistribution.class)
+                .getResultList();
+    }
+
+    /**
+     * 상품별 주문 수량 순위, 상품 이름 -> 순위 순
+     */
+    public List<OrderAmountRank> orderAmountRanks() {
+        return em.createQuery(
+                "select new jpql.report.OrderAmountRank(" +
+                        " o.id, p.name, o.orderAmount, rank_over_desc(p.id, o.orderAmount))" +
+                        " from Order o join o.product p" +
+                        " order by p.name, o.orderAmount desc, o.id", OrderAmountRank.class)
+                .getResultList();
+    }
+
+    /**
+     * @return 팀 이름 -> 회원 이름 목록 (가입 순, separator 로 연결)
+     */
+    public Map<String, String> teamMemberNames(String separator) {
+        List<Object[]> rows = em.createQuery(
+                "select t.name, listagg_ordered(m.username, :separator, m.id)" +
+                        " from Member m join m.team t" +
+                        " group by t.id, t.name" +
+                        " order by t.name", Object[].class)
+                .setParameter("separator", separator)
+                .getResultList();
+
+        Map<String, String> names = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            names.put((String) row[0], (String) row[1]);
+        }
+        return names;
+    }
+}
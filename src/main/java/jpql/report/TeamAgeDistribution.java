@@ -0,0 +1,81 @@
+package jpql.report;
+
+/**
+ * 팀별 회원 나이 분포
+ */
+public class TeamAgeDistribution {
+
+    private final String teamName;
+    private final long memberCount;
+    private final int minAge;
+    private final int maxAge;
+    private final double averageAge;
+    private final double p25;
+    private final double median;
+    private final double p75;
+    private final double p90;
+
+    public TeamAgeDistribution(String teamName, long memberCount, int minAge, int maxAge, double averageAge,
+                               double p25, double median, double p75, double p90) {
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.averageAge = averageAge;
+        this.p25 = p25;
+        this.median = median;
+        this.p75 = p75;
+        this.p90 = p90;
+    }
+
+    public String getTeamName() {
+        return teamName;
+    }
+
+    public long getMemberCount() {
+        return memberCount;
+    }
+
+    public int getMinAge() {
+        return minAge;
+    }
+
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    public double getAverageAge() {
+        return averageAge;
+    }
+
+    public double getP25() {
+        return p25;
+    }
+
+    public double getMedian() {
+        return median;
+    }
+
+    public double getP75() {
+        return p75;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    @Override
+    public String toString() {
+        return "TeamAgeDistribution{" +
+                "teamName='" + teamName + '\'' +
+                ", memberCount=" + memberCount +
+                ", minAge=" + minAge +
+                ", maxAge=" + maxAge +
+                ", averageAge=" + averageAge +
+                ", p25=" + p25 +
+                ", median=" + median +
+                ", p75=" + p75 +
+                ", p90=" + p90 +
+                '}';
+    }
+}
@@ -0,0 +1,166 @@
+package jpql.stream;
+
+import jpql.Member;
+import jpql.MemberDTO;
+import jpql.projection.ProjectionMapper;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import javax.persistence.EntityManager;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 대용량 회원 조회용 스트리밍 API
+ * - getResultList()는 결과 전체를 영속성 컨텍스트와 힙에 올린다. (회원 수만큼 메모리 필요)
+ * - ScrollableResults(FORWARD_ONLY)로 한 행씩 읽고, clearInterval 행마다 영속성 컨텍스트를 비워서
+ *   메모리 사용량을 일정하게 유지한다.
+ * - 읽기 전용(setReadOnly)으로 조회하므로 변경 감지용 스냅샷도 만들지 않는다.
+ *
+ * 주의
+ * - 주기적으로 em.clear()를 호출하므로 스트리밍 전용 EntityManager를 사용해야 한다!
+ *   (같은 EntityManager에 있던 다른 엔티티들도 준영속 상태가 됨)
+ * - 이미 넘겨받은 Member는 다음 clear 이후 준영속 상태이므로 지연 로딩(m.getTeam().getName())을 하려면
+ *   쿼리에서 페치 조인을 하거나 DTO로 조회해야 한다.
+ * - 반환된 Stream은 JDBC 커서를 잡고 있으므로 반드시 닫아야 한다. (try-with-resources)
+ * - H2 임베디드 모드는 LAZY_QUERY_EXECUTION=1 옵션이 있어야 fetchSize 단위로 결과를 가져온다.
+ */
+public class MemberStreamer {
+
+    public static final int DEFAULT_FETCH_SIZE = 500;
+    public static final int DEFAULT_CLEAR_INTERVAL = 1_000;
+
+    /**
+     * (username, age) 행 -> MemberDTO, 스트리밍할 때 DTO 하나를 재사용하기 위해 setter 도 지정
+     */
+    private static final ProjectionMapper<MemberDTO> MEMBER_DTO_MAPPER =
+            ProjectionMapper.of(MemberDTO.class, String.class, int.class).withProperties("username", "age");
+
+    private final Session session;
+    private final int fetchSize;
+    private final int clearInterval;
+
+    public MemberStreamer(EntityManager em) {
+        this(em, DEFAULT_FETCH_SIZE, DEFAULT_CLEAR_INTERVAL);
+    }
+
+    public MemberStreamer(EntityManager em, int fetchSize, int clearInterval) {
+        if (fetchSize <= 0 || clearInterval <= 0) {
+            throw new IllegalArgumentException("fetchSize, clearInterval 은 0보다 커야 합니다.");
+        }
+        this.session = em.unwrap(Session.class);
+        this.fetchSize = fetchSize;
+        this.clearInterval = clearInterval;
+    }
+
+    public Stream<Member> streamMembers() {
+        return stream(session.createQuery("select m from Member m order by m.id", Member.class));
+    }
+
+    public Stream<MemberDTO> streamMemberDTOs() {
+        return stream(session.createQuery(
+                "select new jpql.MemberDTO(m.username, m.age) from Member m order by m.id", MemberDTO.class));
+    }
+
+    /**
+     * @return 처리한 행 수
+     */
+    public long forEachMember(Consumer<? super Member> action) {
+        try (Stream<Member> members = streamMembers()) {
+            return count(members, action);
+        }
+    }
+
+    /**
+     * @return 처리한 행 수
+     */
+    public long forEachMemberDTO(Consumer<? super MemberDTO> action) {
+        try (Stream<MemberDTO> members = streamMemberDTOs()) {
+            return count(members, action);
+        }
+    }
+
+    /**
+     * 회원 DTO 스트리밍 (DTO 인스턴스 재사용)
+     * - 행마다 DTO를 새로 만들지 않고 하나의 MemberDTO 에 값을 덮어쓴다. (행 수와 관계없이 DTO 할당 1번)
+     * - 스칼라 값만 조회하므로 영속성 컨텍스트에 쌓이는 엔티티가 없다. (clear 불필요)
+     * - 주의 : action 이 끝나면 DTO 값이 바뀌므로 action 밖에 보관하면 안 된다! (보관하려면 복사)
+     *
+     * @return 처리한 행 수
+     */
+    public long forEachMemberDTOReusing(Consumer<? super MemberDTO> action) {
+        ScrollableResults results = session.createQuery("select m.username, m.age from Member m order by m.id")
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            MemberDTO buffer = new MemberDTO(null, 0);
+            long count = 0;
+            while (results.next()) {
+                action.accept(MEMBER_DTO_MAPPER.mapInto(results.get(), buffer));
+                count++;
+            }
+            return count;
+        } finally {
+            results.close();
+        }
+    }
+
+    /**
+     * 임의의 단일 프로젝션 쿼리를 같은 방식으로 스트리밍한다.
+     */
+    public <T> Stream<T> stream(Query<T> query) {
+        ScrollableResults results = query
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        return StreamSupport.stream(new ClearingSpliterator<T>(results), false)
+                .onClose(results::close);
+    }
+
+    private static <T> long count(Stream<T> stream, Consumer<? super T> action) {
+        long[] count = {0};
+        stream.forEach(row -> {
+            action.accept(row);
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * 다음 행을 읽기 직전에 clear 해야 방금 넘겨준 행이 소비되기 전에 준영속 상태가 되지 않는다.
+     */
+    private class ClearingSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final ScrollableResults results;
+        private long count;
+
+        ClearingSpliterator(ScrollableResults results) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.results = results;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (count > 0 && count % clearInterval == 0) {
+                session.clear();
+            }
+            if (!results.next()) {
+                return false;
+            }
+            count++;
+            action.accept((T) results.get(0));
+            return true;
+        }
+    }
+}
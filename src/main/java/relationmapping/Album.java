@@ -3,9 +3,17 @@ package relationmapping;
 import javax.persistence.DiscriminatorValue;
 import javax.persistence.Entity;
 
-//@Entity
+@Entity
 @DiscriminatorValue("A")
 public class Album extends Item {
 
     private String artist;
+
+    public String getArtist() {
+        return artist;
+    }
+
+    public void setArtist(String artist) {
+        this.artist = artist;
+    }
 }
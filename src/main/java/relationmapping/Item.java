@@ -1,5 +1,8 @@
 package relationmapping;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 
 /**
@@ -21,8 +24,16 @@ import javax.persistence.*;
  *
  * 단순하고 중요하지 않은 엔티티라면 단일 테이블 전략, 복잡하고 중요하다면 조인 전략을 사용해라.
  * 물론 상황에 맞는 트레이드오프를 고민해야한다!
+ *
+ * TABLE_PER_CLASS 의 UNION 피하기 (relationmapping.routing)
+ * - 식별자에 하위 타입 코드를 넣는다. (ItemIdGenerator, ItemType)
+ * - em.find(Item.class, id) 는 식별자의 타입 테이블만 조회한다. (ItemRoutingLoadListener)
+ * - 여러 건, 조건 조회는 ItemRouter 로 타입별 테이블만 조회한다.
+ *
+ * JOINED 로 사용하기 : relationmapping-joined 유닛 (META-INF/relationmapping-joined.xml 이 전략을 덮어씀)
+ * - 다형성 목록 조회는 JoinedFetchPlanner 로 부모 테이블 조회 후 타입별로 나눠서 조회한다. (relationmapping.fetch)
  */
-//@Entity
+@Entity
 //@Inheritance(strategy = InheritanceType.JOINED)
 //@Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @Inheritance(strategy = InheritanceType.TABLE_PER_CLASS)
@@ -32,7 +43,12 @@ import javax.persistence.*;
 public abstract class Item {
 
     @Id
-    @GeneratedValue
+    @GenericGenerator(name = "ITEM_ID_GENERATOR", strategy = "relationmapping.routing.ItemIdGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "ITEM_SEQ"),
+                    @Parameter(name = "increment_size", value = "50")
+            })
+    @GeneratedValue(generator = "ITEM_ID_GENERATOR")
     private Long id;
 
     private String name;
@@ -3,7 +3,7 @@ package relationmapping;
 import javax.persistence.DiscriminatorValue;
 import javax.persistence.Entity;
 
-//@Entity
+@Entity
 @DiscriminatorValue("M")
 public class Movie extends Item {
 
@@ -0,0 +1,98 @@
+package relationmapping.fetch;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JoinedFetchPlanner 1단계(부모 테이블) 조건 : 부모 엔티티 프로퍼티 + 연산자 + 값
+ * - 프로퍼티 이름은 JoinedFetchPlanner 가 부모 테이블 컬럼으로 바꾸고, 값은 항상 파라미터로 바인딩한다. (SQL 문자열을 받지 않음)
+ *   -> 2단계(타입별 조회)에서는 같은 조건을 JPQL 프로퍼티 경로로 다시 사용한다.
+ * - 부모 엔티티에 매핑된 프로퍼티(식별자 포함)만 사용할 수 있다. (자식 테이블 컬럼은 1단계에서 볼 수 없음)
+ *
+ * 사용법
+ *   planner.list(Item.class, RootCondition.between("price", 1000, 2000), "price");
+ */
+public final class RootCondition {
+
+    public enum Operator {
+        EQ("="), LT("<"), LE("<="), GT(">"), GE(">="), BETWEEN("between"), IN("in");
+
+        private final String sql;
+
+        Operator(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    private final String property;
+    private final Operator operator;
+    private final List<Object> values;
+
+    private RootCondition(String property, Operator operator, List<Object> values) {
+        if (property == null || values.contains(null)) {
+            throw new IllegalArgumentException("프로퍼티와 값은 null 일 수 없습니다 : " + property + " " + values);
+        }
+        this.property = property;
+        this.operator = operator;
+        this.values = values;
+    }
+
+    public static RootCondition eq(String property, Object value) {
+        return new RootCondition(property, Operator.EQ, Collections.singletonList(value));
+    }
+
+    public static RootCondition lt(String property, Object value) {
+        return new RootCondition(property, Operator.LT, Collections.singletonList(value));
+    }
+
+    public static RootCondition le(String property, Object value) {
+        return new RootCondition(property, Operator.LE, Collections.singletonList(value));
+    }
+
+    public static RootCondition gt(String property, Object value) {
+        return new RootCondition(property, Operator.GT, Collections.singletonList(value));
+    }
+
+    public static RootCondition ge(String property, Object value) {
+        return new RootCondition(property, Operator.GE, Collections.singletonList(value));
+    }
+
+    public static RootCondition between(String property, Object from, Object to) {
+        return new RootCondition(property, Operator.BETWEEN, Arrays.asList(from, to));
+    }
+
+    /**
+     * @param values 비어 있으면 안 된다.
+     */
+    public static RootCondition in(String property, Collection<?> values) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("in 조건의 값이 없습니다 : " + property);
+        }
+        return new RootCondition(property, Operator.IN, Collections.singletonList(values));
+    }
+
+    String getProperty() {
+        return property;
+    }
+
+    List<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * @param column 별칭이 붙은 부모 테이블 컬럼(SQL) 또는 프로퍼티 경로(JPQL) (ex: e.price)
+     * @return 파라미터 이름은 p0, p1 ...
+     */
+    String toSql(String column) {
+        switch (operator) {
+            case BETWEEN:
+                return column + " between :p0 and :p1";
+            case IN:
+                return column + " in (:p0)";
+            default:
+                return column + " " + operator.sql + " :p0";
+        }
+    }
+}
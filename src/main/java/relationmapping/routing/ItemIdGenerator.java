@@ -0,0 +1,27 @@
+package relationmapping.routing;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.io.Serializable;
+
+/**
+ * 타입 코드를 넣은 Item 식별자 생성기
+ * - 시퀀스(SequenceStyleGenerator) 값에 타입 코드를 붙인다. -> MARKER + 시퀀스 값 * 10 + 타입 코드 (ItemType)
+ * - 하위 타입이 시퀀스 하나를 같이 쓰므로 테이블이 달라도 식별자는 겹치지 않는다. (TABLE_PER_CLASS 는 식별자가 전체에서 유일해야 함)
+ * - 시퀀스 파라미터(sequence_name, increment_size, 최적화)는 SequenceStyleGenerator 와 같다.
+ *
+ * 사용법
+ *   @GenericGenerator(name = "ITEM_ID_GENERATOR", strategy = "relationmapping.routing.ItemIdGenerator",
+ *           parameters = @Parameter(name = "sequence_name", value = "ITEM_SEQ"))
+ *   @GeneratedValue(generator = "ITEM_ID_GENERATOR")
+ */
+public class ItemIdGenerator extends SequenceStyleGenerator {
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        long sequenceValue = ((Number) super.generate(session, object)).longValue();
+        return ItemType.of(object.getClass()).encode(sequenceValue);
+    }
+}
@@ -0,0 +1,95 @@
+package relationmapping.routing;
+
+import relationmapping.Item;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 구현 클래스마다 테이블 전략(TABLE_PER_CLASS) Item 조회
+ * - Item 으로 조회하면 하위 타입 테이블을 모두 UNION ALL 한 결과에서 찾는다. (식별자 하나를 찾아도 테이블 전부 조회)
+ * - 조회할 하위 타입을 알면 그 타입의 테이블만 조회한다.
+ *   -> 식별자 : 타입 코드(ItemType)로 테이블을 정한다.
+ *   -> 조건 조회 : 호출하는 쪽이 대상 타입을 넘긴다. (타입을 모르면 ItemType.values())
+ * - em.find(Item.class, id) 는 ItemRoutingLoadListener 가 같은 방식으로 바꿔준다.
+ */
+public class ItemRouter {
+
+    private final EntityManager em;
+
+    public ItemRouter(EntityManager em) {
+        this.em = em;
+    }
+
+    public Item find(Long id) {
+        ItemType type = ItemType.of(id);
+        return type == null ? em.find(Item.class, id) : em.find(type.getEntityClass(), id);
+    }
+
+    /**
+     * 식별자를 타입별로 나눠서 타입마다 IN 쿼리 한번 (쿼리 수 = 식별자에 있는 타입 수)
+     *
+     * @return 찾은 상품 (ids 순서, 없는 식별자는 빠짐)
+     */
+    public List<Item> findAll(Collection<Long> ids) {
+        Map<ItemType, List<Long>> idsByType = new EnumMap<>(ItemType.class);
+        List<Long> untyped = new ArrayList<>();
+        for (Long id : ids) {
+            ItemType type = ItemType.of(id);
+            if (type == null) {
+                untyped.add(id);
+            } else {
+                idsByType.computeIfAbsent(type, t -> new ArrayList<>()).add(id);
+            }
+        }
+
+        Map<Long, Item> found = new HashMap<>();
+        for (Map.Entry<ItemType, List<Long>> entry : idsByType.entrySet()) {
+            collect(found, entry.getKey().getEntityClass(), entry.getValue());
+        }
+        if (!untyped.isEmpty()) {
+            collect(found, Item.class, untyped);
+        }
+
+        List<Item> items = new ArrayList<>(found.size());
+        for (Long id : ids) {
+            Item item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * 이름으로 조회, 지정한 타입의 테이블만 조회한다.
+     */
+    public List<Item> findByName(String name, Collection<ItemType> types) {
+        List<Item> items = new ArrayList<>();
+        for (ItemType type : types) {
+            items.addAll(em.createQuery("select i from " + entityName(type.getEntityClass()) + " i"
+                            + " where i.name = :name order by i.id", type.getEntityClass())
+                    .setParameter("name", name)
+                    .getResultList());
+        }
+        return items;
+    }
+
+    private void collect(Map<Long, Item> found, Class<? extends Item> entityClass, List<Long> ids) {
+        for (Item item : em.createQuery("select i from " + entityName(entityClass) + " i where i.id in :ids",
+                        entityClass)
+                .setParameter("ids", ids)
+                .getResultList()) {
+            found.put(item.getId(), item);
+        }
+    }
+
+    private String entityName(Class<? extends Item> entityClass) {
+        return em.getMetamodel().entity(entityClass).getName();
+    }
+}
@@ -0,0 +1,15 @@
+package relationmapping.routing;
+
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+
+import java.util.Collections;
+import java.util.List;
+
+public class ItemRoutingIntegratorProvider implements IntegratorProvider {
+
+    @Override
+    public List<Integrator> getIntegrators() {
+        return Collections.singletonList(new ItemRoutingIntegrator());
+    }
+}
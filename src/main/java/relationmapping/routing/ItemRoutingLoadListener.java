@@ -0,0 +1,31 @@
+package relationmapping.routing;
+
+import org.hibernate.HibernateException;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import relationmapping.Item;
+
+/**
+ * em.find(Item.class, id), em.getReference(Item.class, id), Item 지연 로딩을 하위 타입 조회로 바꾼다.
+ * - 하이버네이트 기본 리스너 앞에 등록해서 로딩할 엔티티 이름을 식별자의 타입(ItemType)으로 바꿔치기 한다.
+ *   -> select ... from ( select ... from Album union all select ... from Book union all ... ) 대신
+ *      select ... from Book where id = ?
+ * - 영속성 컨텍스트의 엔티티 키는 루트 엔티티(Item) 기준이므로 이미 로딩된 엔티티는 그대로 찾는다.
+ * - 타입 코드가 없는 식별자는 바꾸지 않는다. (기존처럼 UNION 조회)
+ */
+public class ItemRoutingLoadListener implements LoadEventListener {
+
+    private static final String ITEM = Item.class.getName();
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        if (event.getInstanceToLoad() != null || !ITEM.equals(event.getEntityClassName())
+                || !(event.getEntityId() instanceof Long)) {
+            return;
+        }
+        ItemType type = ItemType.of((Long) event.getEntityId());
+        if (type != null) {
+            event.setEntityClassName(type.getEntityClass().getName());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package relationmapping.routing;
+
+import relationmapping.Album;
+import relationmapping.Book;
+import relationmapping.Item;
+import relationmapping.Movie;
+
+/**
+ * Item 하위 타입과 식별자에 넣는 타입 코드
+ * - 식별자 = MARKER(2^62) + 시퀀스 값 * 10 + 타입 코드 (ItemIdGenerator)
+ *   -> ex) MARKER + 41 = 시퀀스 4번 앨범, MARKER + 42 = 시퀀스 4번 도서
+ *   -> MARKER 비트가 없는 식별자(일반 시퀀스, 직접 넣은 값)는 끝자리가 1 ~ 3 이어도 타입 코드로 보지 않는다.
+ *      (ex. 시퀀스로 만든 영화 12 를 도서로 라우팅해서 못 찾는 일이 없도록)
+ * - 식별자만 보고 어느 테이블에 있는지 알 수 있으므로 UNION 없이 그 테이블만 조회한다. (ItemRouter, ItemRoutingLoadListener)
+ */
+public enum ItemType {
+
+    ALBUM(1, Album.class),
+    BOOK(2, Book.class),
+    MOVIE(3, Movie.class);
+
+    public static final int RADIX = 10;
+
+    /**
+     * 타입 코드를 넣은 식별자 표시 비트 (시퀀스 값은 MAX_SEQUENCE_VALUE 까지)
+     */
+    public static final long MARKER = 1L << 62;
+
+    public static final long MAX_SEQUENCE_VALUE = (MARKER - 1) / RADIX - 1;
+
+    private static final ItemType[] BY_CODE = new ItemType[RADIX];
+
+    static {
+        for (ItemType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+    private final Class<? extends Item> entityClass;
+
+    ItemType(int code, Class<? extends Item> entityClass) {
+        this.code = code;
+        this.entityClass = entityClass;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public Class<? extends Item> getEntityClass() {
+        return entityClass;
+    }
+
+    public long encode(long sequenceValue) {
+        if (sequenceValue < 0 || sequenceValue > MAX_SEQUENCE_VALUE) {
+            throw new IllegalArgumentException("타입 코드를 넣을 수 없는 시퀀스 값입니다 : " + sequenceValue);
+        }
+        return MARKER + sequenceValue * RADIX + code;
+    }
+
+    /**
+     * @return 식별자의 타입, 타입 코드가 없는 식별자(ItemIdGenerator 로 만들지 않은 식별자)면 null
+     */
+    public static ItemType of(Long id) {
+        if (id == null || id < 0 || (id & MARKER) == 0) {
+            return null;
+        }
+        return BY_CODE[(int) ((id - MARKER) % RADIX)];
+    }
+
+    /**
+     * @param entityClass 하위 타입 (바이트코드 향상 클래스나 하위 클래스도 가능)
+     */
+    public static ItemType of(Class<?> entityClass) {
+        for (ItemType type : values()) {
+            if (type.entityClass.isAssignableFrom(entityClass)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Item 하위 타입이 아닙니다 : " + entityClass.getName());
+    }
+}